@@ -0,0 +1,60 @@
+#!/usr/bin/env bash
+#
+# Compares web-carros (Tomcat + JDBC) with web-carros-reactive (Netty + R2DBC)
+# under the same closed loop load. Both jars must be built first:
+#
+#   (cd ../web-carros && ./mvnw install -DskipTests)
+#   (cd ../web-carros-reactive && ./mvnw package -DskipTests)
+#   ./mvnw package
+#
+# Usage: ./load-test.sh [persons] [seconds] [clients...]
+set -euo pipefail
+
+PERSONS=${1:-10000}
+SECONDS_PER_RUN=${2:-20}
+shift $(( $# > 2 ? 2 : $# ))
+CLIENTS=${*:-1 16 64 256}
+SCENARIOS=${SCENARIOS:-find list export}
+JAVA_OPTS=${JAVA_OPTS:--Xms256m -Xmx256m}
+PORT=${PORT:-8090}
+
+HERE=$(cd "$(dirname "$0")" && pwd)
+LOAD="java -cp $HERE/target/benchmarks.jar com.webcarros.benchmarks.load.PersonApiLoadTest"
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+# prints the resident memory and thread count of a process
+usage() {
+	awk '/^VmRSS|^VmHWM|^Threads/ { printf "%s %s %s  ", $1, $2, $3 } END { print "" }' "/proc/$1/status"
+}
+
+run_module() {
+	local name=$1 jar=$2
+	echo "== $name"
+	(cd "$WORK" && exec java $JAVA_OPTS -jar "$jar" --server.port="$PORT" \
+		--webcarros.search.index-dir="$WORK/search-index" > "$WORK/$name.log" 2>&1) &
+	local pid=$!
+	until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+		kill -0 $pid 2> /dev/null || { cat "$WORK/$name.log"; exit 1; }
+		sleep 0.5
+	done
+
+	$LOAD seed "http://localhost:$PORT" "$PERSONS"
+	echo "idle:   $(usage $pid)"
+	for scenario in $SCENARIOS; do
+		# warm up the JIT before measuring
+		$LOAD run "http://localhost:$PORT" "$PERSONS" "$scenario" 16 5 > /dev/null
+		for clients in $CLIENTS; do
+			# every export reads the whole table, so it runs with fewer clients
+			[ "$scenario" = export ] && [ "$clients" -gt 16 ] && continue
+			$LOAD run "http://localhost:$PORT" "$PERSONS" "$scenario" "$clients" "$SECONDS_PER_RUN"
+			echo "        $(usage $pid)"
+		done
+	done
+
+	kill $pid
+	wait $pid 2> /dev/null || true
+}
+
+run_module web-carros "$HERE/../web-carros/target/web-carros-0.0.1-SNAPSHOT-exec.jar"
+run_module web-carros-reactive "$HERE/../web-carros-reactive/target/web-carros-reactive-0.0.1-SNAPSHOT.jar"
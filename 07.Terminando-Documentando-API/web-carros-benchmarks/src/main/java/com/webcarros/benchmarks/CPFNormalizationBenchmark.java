@@ -0,0 +1,47 @@
+package com.webcarros.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.webcarros.domain.CPF;
+import com.webcarros.exceptions.CPFBadFormatedException;
+
+/**
+ * Compares {@link CPF#normalize(String)} with the two {@code String.replace}
+ * passes and the {@code String.matches} check PersonService used before.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CPFNormalizationBenchmark {
+	
+	@Param({"12345678909", "123.456.789-09"})
+	private String cpf;
+	
+	@Benchmark
+	public String replaceAndMatches() {
+		final String normalized = cpf.replace(".", "").replace("-", "");
+		if (!normalized.matches("^[0-9]{11}$")) {
+			throw new CPFBadFormatedException(cpf);
+		}
+		return normalized;
+	}
+	
+	@Benchmark
+	public String singlePass() {
+		return CPF.normalize(cpf);
+	}
+}
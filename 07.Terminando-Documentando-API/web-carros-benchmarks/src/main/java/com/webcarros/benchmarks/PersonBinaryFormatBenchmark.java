@@ -0,0 +1,112 @@
+package com.webcarros.benchmarks;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.webcarros.dto.PersonDTO;
+import com.webcarros.json.PersonDTOSerializer;
+
+/**
+ * Writes and reads {@code List<PersonDTO>} pages in each format the API
+ * negotiates, with ObjectMappers configured like the ones of its message
+ * converters. The size of each page is printed by {@link #main(String[])}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonBinaryFormatBenchmark {
+
+	@Param({"1", "50", "500"})
+	private int size;
+
+	@Param({"json", "cbor", "smile"})
+	private String format;
+
+	private ObjectMapper objectMapper;
+
+	private ObjectReader listReader;
+
+	private List<PersonDTO> persons;
+
+	private byte[] body;
+
+	@Setup
+	public void setUp() throws JsonProcessingException {
+		objectMapper = builder(format)
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.serializers(new PersonDTOSerializer())
+				.build();
+		listReader = objectMapper.readerFor(new TypeReference<List<PersonDTO>>() {});
+		persons = persons(size);
+		body = objectMapper.writeValueAsBytes(persons);
+	}
+
+	@Benchmark
+	public byte[] writeList() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(persons);
+	}
+
+	@Benchmark
+	public List<PersonDTO> readList() throws IOException {
+		return listReader.readValue(body);
+	}
+
+	private static Jackson2ObjectMapperBuilder builder(final String format) {
+		switch (format) {
+		case "cbor":
+			return Jackson2ObjectMapperBuilder.cbor();
+		case "smile":
+			return Jackson2ObjectMapperBuilder.smile();
+		default:
+			return Jackson2ObjectMapperBuilder.json();
+		}
+	}
+
+	private static List<PersonDTO> persons(final int size) {
+		return IntStream.range(0, size)
+				.mapToObj(i -> new PersonDTO(String.format("%011d", i), "NAME-" + i, "email-" + i + "@email.com.br",
+						LocalDate.parse("2000-01-01").plusDays(i)))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Prints the bytes of each page in each format, the payload sizes the
+	 * benchmarks above work on.
+	 */
+	public static void main(final String[] args) throws JsonProcessingException {
+		for (final String format : List.of("json", "cbor", "smile")) {
+			final ObjectMapper objectMapper = builder(format)
+					.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+					.serializers(new PersonDTOSerializer())
+					.build();
+			for (final int size : List.of(1, 50, 500)) {
+				System.out.printf("%-5s %3d %7d bytes%n", format, size, objectMapper.writeValueAsBytes(persons(size)).length);
+			}
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.webcarros.benchmarks;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonDTO;
+import com.webcarros.mappers.PersonMapper;
+import com.webcarros.mappers.PersonMapperImpl;
+
+/**
+ * Compares the MapStruct generated {@link PersonMapper} with the reflection
+ * based {@link ModelMapper} PersonRestController used before.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonMappingBenchmark {
+	
+	private final ModelMapper modelMapper = new ModelMapper();
+	
+	private final PersonMapper personMapper = new PersonMapperImpl();
+	
+	private final Person person = new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+	
+	private final PersonDTO dto = new PersonDTO("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+	
+	@Benchmark
+	public PersonDTO modelMapperToDTO() {
+		return modelMapper.map(person, PersonDTO.class);
+	}
+	
+	@Benchmark
+	public PersonDTO mapStructToDTO() {
+		return personMapper.toDTO(person);
+	}
+	
+	@Benchmark
+	public Person modelMapperToEntity() {
+		return modelMapper.map(dto, Person.class);
+	}
+	
+	@Benchmark
+	public Person mapStructToEntity() {
+		return personMapper.toEntity(dto);
+	}
+}
@@ -0,0 +1,149 @@
+package com.webcarros.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webcarros.WebCarrosApplication;
+import com.webcarros.domain.entities.Person;
+import com.webcarros.domain.repositories.PersonRepository;
+import com.webcarros.dto.PersonDTO;
+import com.webcarros.mappers.PersonMapper;
+
+/**
+ * Looks persons up through {@link PersonRepository} against the embedded H2
+ * database, with a Spring context booted without the web layer. The
+ * {@code cache} parameter turns the persons cache on or off.
+ * <p>
+ * {@link #listProjectedPage()} and {@link #listEntityPage()} compare a listing
+ * page read as DTO projections with the same page read as entities and mapped,
+ * like the list endpoint did before. Both run the JPQL without the query cache
+ * in a read-only transaction.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonRepositoryBenchmark {
+	
+	private static final int ROWS = 10_000;
+	
+	private static final int PAGE_SIZE = 50;
+	
+	@Param({"caffeine", "none"})
+	private String cache;
+	
+	private ConfigurableApplicationContext context;
+	
+	private PersonRepository personRepository;
+	
+	private List<String> cpfs;
+	
+	private EntityManager entityManager;
+	
+	private TransactionTemplate readOnly;
+	
+	private PersonMapper personMapper;
+	
+	@Setup
+	public void setUp() {
+		// an argument, since application.properties sets spring.cache.type over the builder's defaults
+		context = new SpringApplicationBuilder(WebCarrosApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties("logging.level.root=WARN")
+				.run("--spring.cache.type=" + cache);
+		personRepository = context.getBean(PersonRepository.class);
+		
+		final List<Person> persons = IntStream.range(0, ROWS)
+				.mapToObj(i -> new Person(String.format("%011d", i), "NAME-" + i, "email-" + i + "@email.com.br",
+						LocalDate.parse("2000-01-01")))
+				.collect(Collectors.toList());
+		personRepository.saveAll(persons);
+		cpfs = persons.stream().map(Person::getCpf).collect(Collectors.toList());
+		
+		entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+		readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnly.setReadOnly(true);
+		personMapper = context.getBean(PersonMapper.class);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public Optional<PersonDTO> findDTOByCpf() {
+		return personRepository.findDTOByCpf(cpfs.get(ThreadLocalRandom.current().nextInt(ROWS)));
+	}
+	
+	/**
+	 * The entity lookup is not cached, it is the baseline for the projected
+	 * {@link #findDTOByCpf()} with {@code cache=none}.
+	 */
+	@Benchmark
+	public Optional<Person> findById() {
+		return personRepository.findById(cpfs.get(ThreadLocalRandom.current().nextInt(ROWS)));
+	}
+	
+	@Benchmark
+	public Slice<PersonDTO> findPage() {
+		final String after = cpfs.get(ThreadLocalRandom.current().nextInt(ROWS));
+		return personRepository.findByCpfGreaterThan(after, PageRequest.of(0, PAGE_SIZE, Sort.by("cpf")));
+	}
+	
+	@Benchmark
+	public List<PersonDTO> listProjectedPage() {
+		final String after = cpfs.get(ThreadLocalRandom.current().nextInt(ROWS));
+		return readOnly.execute(status -> entityManager.createQuery(
+				"select new com.webcarros.dto.PersonDTO(p.cpf, p.name, p.email, p.birthDate, p.version) "
+						+ "from Person p where p.cpf > :cpf order by p.cpf", PersonDTO.class)
+				.setParameter("cpf", after)
+				.setMaxResults(PAGE_SIZE)
+				.getResultList());
+	}
+	
+	@Benchmark
+	public List<PersonDTO> listEntityPage() {
+		final String after = cpfs.get(ThreadLocalRandom.current().nextInt(ROWS));
+		return readOnly.execute(status -> entityManager.createQuery(
+				"select p from Person p where p.cpf > :cpf order by p.cpf", Person.class)
+				.setParameter("cpf", after)
+				.setMaxResults(PAGE_SIZE)
+				.getResultList()
+				.stream()
+				.map(personMapper::toDTO)
+				.collect(Collectors.toList()));
+	}
+}
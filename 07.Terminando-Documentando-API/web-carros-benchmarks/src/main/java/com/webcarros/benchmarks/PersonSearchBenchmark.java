@@ -0,0 +1,81 @@
+package com.webcarros.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonDTO;
+import com.webcarros.search.PersonSearchIndex;
+
+/**
+ * Searches {@link PersonSearchIndex} with an exact and a misspelled name, on
+ * indexes of growing size in a temporary directory.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonSearchBenchmark {
+	
+	private static final String[] FIRST_NAMES = {"ANA", "BRUNO", "CARLA", "DIEGO", "ELISA", "FABIO", "GABRIELA", "HUGO"};
+	
+	private static final String[] LAST_NAMES = {"SILVA", "SOUZA", "OLIVEIRA", "PEREIRA", "COSTA", "RODRIGUES", "ALMEIDA"};
+	
+	@Param({"1000", "100000"})
+	private int rows;
+	
+	private Path indexDir;
+	
+	private PersonSearchIndex index;
+	
+	@Setup
+	public void setUp() throws IOException {
+		indexDir = Files.createTempDirectory("person-search");
+		index = new PersonSearchIndex(indexDir);
+		index.rebuild(action -> IntStream.range(0, rows)
+				.mapToObj(i -> new Person(String.format("%011d", i),
+						FIRST_NAMES[i % FIRST_NAMES.length] + " " + LAST_NAMES[i % LAST_NAMES.length] + " " + i,
+						"email-" + i + "@email.com.br", null))
+				.forEach(action));
+	}
+	
+	@TearDown
+	public void tearDown() throws IOException {
+		index.close();
+		try (Stream<Path> files = Files.walk(indexDir)) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+	
+	@Benchmark
+	public List<PersonDTO> exact() {
+		return index.search("gabriela oliveira", 50);
+	}
+	
+	@Benchmark
+	public List<PersonDTO> misspelled() {
+		return index.search("gabreila olivera", 50);
+	}
+}
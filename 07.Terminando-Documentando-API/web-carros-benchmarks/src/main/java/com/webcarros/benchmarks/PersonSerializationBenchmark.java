@@ -0,0 +1,70 @@
+package com.webcarros.benchmarks;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.webcarros.dto.PersonDTO;
+import com.webcarros.json.PersonDTOSerializer;
+
+/**
+ * Serializes {@code List<PersonDTO>} pages the way GET /api/persons does, with
+ * an ObjectMapper configured like Spring Boot's default one, either through
+ * Jackson's bean serializer or through {@link PersonDTOSerializer}.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersonSerializationBenchmark {
+	
+	@Param({"1", "50", "500"})
+	private int size;
+	
+	@Param({"bean", "streaming"})
+	private String serializer;
+	
+	private ObjectMapper objectMapper;
+	
+	private List<PersonDTO> persons;
+	
+	@Setup
+	public void setUp() {
+		final Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		if (serializer.equals("streaming")) {
+			builder.serializers(new PersonDTOSerializer());
+		}
+		objectMapper = builder.build();
+		
+		persons = IntStream.range(0, size)
+				.mapToObj(i -> new PersonDTO(String.format("%011d", i), "NAME-" + i, "email-" + i + "@email.com.br",
+						LocalDate.parse("2000-01-01").plusDays(i)))
+				.collect(Collectors.toList());
+	}
+	
+	@Benchmark
+	public byte[] writeList() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(persons);
+	}
+}
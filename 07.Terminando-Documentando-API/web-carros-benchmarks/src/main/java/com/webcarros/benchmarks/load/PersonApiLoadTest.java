@@ -0,0 +1,192 @@
+package com.webcarros.benchmarks.load;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed loop HTTP load generator for the {@code /api/persons} API, used to
+ * compare {@code web-carros} with {@code web-carros-reactive}. Each client
+ * sends its next request as soon as the previous answer is fully read.
+ * <p>
+ * Usage:
+ * 
+ * <pre>
+ * seed &lt;base-url&gt; &lt;persons&gt;
+ * run &lt;base-url&gt; &lt;persons&gt; &lt;find|list|export&gt; &lt;clients&gt; &lt;seconds&gt;
+ * </pre>
+ * 
+ * {@code run} prints one line with the throughput and the latency percentiles.
+ * The persons are generated from their index, so {@code run} finds the ones
+ * {@code seed} saved as long as both get the same count.
+ */
+public class PersonApiLoadTest {
+	
+	private static final int SEED_CHUNK_SIZE = 1000;
+	
+	private final HttpClient client = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+	
+	private final String baseUrl;
+	
+	private final int persons;
+	
+	private PersonApiLoadTest(final String baseUrl, final int persons) {
+		this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+		this.persons = persons;
+	}
+	
+	public static void main(final String[] args) throws Exception {
+		if (args.length < 3) {
+			System.err.println("usage: seed <base-url> <persons> | run <base-url> <persons> <find|list|export> <clients> <seconds>");
+			System.exit(2);
+		}
+		final PersonApiLoadTest test = new PersonApiLoadTest(args[1], Integer.parseInt(args[2]));
+		if (args[0].equals("seed")) {
+			test.seed();
+		} else {
+			test.run(args[3], Integer.parseInt(args[4]), Integer.parseInt(args[5]));
+		}
+	}
+	
+	private void seed() throws Exception {
+		for (int from = 0; from < persons; from += SEED_CHUNK_SIZE) {
+			final StringBuilder body = new StringBuilder("[");
+			for (int i = from; i < Math.min(from + SEED_CHUNK_SIZE, persons); i++) {
+				if (i > from) {
+					body.append(',');
+				}
+				body.append("{\"cpf\":\"").append(cpf(i))
+						.append("\",\"name\":\"PESSOA ").append(i)
+						.append("\",\"email\":\"pessoa").append(i)
+						.append("@email.com.br\",\"birthDate\":\"2000-01-01\"}");
+			}
+			body.append(']');
+			final HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/persons/batch"))
+					.header("Content-Type", "application/json")
+					.POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+					.build(), HttpResponse.BodyHandlers.ofString());
+			if (response.statusCode() != 200) {
+				throw new IllegalStateException("seed failed with " + response.statusCode() + ": " + response.body());
+			}
+		}
+	}
+	
+	private void run(final String scenario, final int clients, final int seconds) throws InterruptedException {
+		final long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+		final AtomicLong errors = new AtomicLong();
+		final List<long[]> latencies = new ArrayList<>(clients);
+		final int[] counts = new int[clients];
+		final Thread[] threads = new Thread[clients];
+		
+		for (int c = 0; c < clients; c++) {
+			final int client = c;
+			latencies.add(new long[1024]);
+			threads[c] = new Thread(() -> {
+				while (System.nanoTime() < deadline) {
+					final long start = System.nanoTime();
+					try {
+						final HttpResponse<InputStream> response = this.client.send(request(scenario),
+								HttpResponse.BodyHandlers.ofInputStream());
+						try (InputStream body = response.body()) {
+							// read to the end, so the server has to write the whole body
+							body.transferTo(OutputStream.nullOutputStream());
+						}
+						if (response.statusCode() != 200) {
+							errors.incrementAndGet();
+						}
+					} catch (final Exception e) {
+						errors.incrementAndGet();
+					}
+					
+					long[] samples = latencies.get(client);
+					if (counts[client] == samples.length) {
+						samples = Arrays.copyOf(samples, samples.length * 2);
+						latencies.set(client, samples);
+					}
+					samples[counts[client]++] = System.nanoTime() - start;
+				}
+			}, "load-" + c);
+		}
+		
+		final long start = System.nanoTime();
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		final double elapsed = (System.nanoTime() - start) / 1e9;
+		
+		final long[] all = new long[Arrays.stream(counts).sum()];
+		int offset = 0;
+		for (int c = 0; c < clients; c++) {
+			System.arraycopy(latencies.get(c), 0, all, offset, counts[c]);
+			offset += counts[c];
+		}
+		Arrays.sort(all);
+		System.out.println(String.format(Locale.ROOT,
+				"%-6s clients=%-4d requests=%-7d errors=%-5d throughput=%9.1f req/s p50=%8.2f ms p99=%8.2f ms max=%8.2f ms",
+				scenario, clients, all.length, errors.get(), all.length / elapsed,
+				percentile(all, 0.50), percentile(all, 0.99), percentile(all, 1.0)));
+	}
+	
+	private HttpRequest request(final String scenario) {
+		final String path;
+		switch (scenario) {
+		case "find":
+			path = "/api/persons/" + cpf(ThreadLocalRandom.current().nextInt(persons));
+			break;
+		case "list":
+			path = "/api/persons?limit=50&after=" + cpf(ThreadLocalRandom.current().nextInt(persons));
+			break;
+		case "export":
+			path = "/api/persons/export";
+			break;
+		default:
+			throw new IllegalArgumentException("unknown scenario " + scenario);
+		}
+		return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+	}
+	
+	private static double percentile(final long[] sorted, final double p) {
+		if (sorted.length == 0) {
+			return Double.NaN;
+		}
+		final int index = (int) Math.ceil(p * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1e6;
+	}
+	
+	/**
+	 * @return the valid CPF of the {@code index}-th seeded person
+	 */
+	static String cpf(final int index) {
+		final char[] digits = String.format("%09d", 100_000_000 + index).toCharArray();
+		int firstSum = 0;
+		int secondSum = 0;
+		for (int i = 0; i < 9; i++) {
+			firstSum += (digits[i] - '0') * (10 - i);
+			secondSum += (digits[i] - '0') * (11 - i);
+		}
+		final int first = checkDigit(firstSum);
+		final int second = checkDigit(secondSum + first * 2);
+		return new String(digits) + first + second;
+	}
+	
+	private static int checkDigit(final int sum) {
+		final int rest = sum % 11;
+		return rest < 2 ? 0 : 11 - rest;
+	}
+}
@@ -0,0 +1,156 @@
+#!/usr/bin/env bash
+#
+# Boots each module of the tutorial, 01 to 07, and measures the time from
+# launching the JVM to its first successful response. At that moment it also
+# reads the time the JVM spent loading classes, its resident memory and how
+# much of it is mapped from CDS archives. web-carros is measured as built by
+# default, as built and started for fast boot, and with the JDK in
+# CDS_JAVA_HOME both from its jar and from the AppCDS archive of
+# ../web-carros/cds/train.sh. Every module is built by the script.
+#
+# Usage: ./startup-test.sh [runs]
+set -euo pipefail
+
+RUNS=${1:-5}
+JAVA_OPTS=${JAVA_OPTS:--Xmx256m}
+PORT=${PORT:-8090}
+JDK=${JAVA_HOME:-$(dirname "$(dirname "$(readlink -f "$(command -v java)")")")}
+# dynamic AppCDS archives need JDK 13 or newer
+CDS_JDK=${CDS_JAVA_HOME:-$JDK}
+
+HERE=$(cd "$(dirname "$0")" && pwd)
+ROOT=$(cd "$HERE/../.." && pwd)
+WEB_CARROS=$ROOT/07.Terminando-Documentando-API/web-carros
+WORK=$(mktemp -d)
+trap 'rm -rf "$WORK"' EXIT
+
+# builds a module and copies its runnable jar to $WORK/<name>.jar
+build() {
+	local name=$1 dir=$2
+	shift 2
+	(cd "$dir" && JAVA_HOME=$JDK ./mvnw -B -q clean package -DskipTests "$@")
+	# web-carros keeps its plain jar as the main artifact, the runnable one is -exec
+	cp "$(ls "$dir"/target/*-exec.jar 2> /dev/null || ls "$dir"/target/*.jar)" "$WORK/$name.jar"
+}
+
+java_version() {
+	"$1/bin/java" -XshowSettings:properties -version 2>&1 | awk -F' = ' '/java.specification.version/ { print $2 }'
+}
+
+# starts the command in a clean directory and prints its pid once it answered $path on $port with $expected
+boot() {
+	local port=$1 path=$2 expected=$3 dir=$4
+	shift 4
+	rm -rf "$dir" && mkdir "$dir"
+	(cd "$dir" && exec "$@" --server.port="$port" > "$dir.log" 2>&1) &
+	local pid=$!
+	until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$port$path")" = "$expected" ]; do
+		kill -0 $pid 2> /dev/null || { cat "$dir.log" >&2; exit 1; }
+		sleep 0.05
+	done
+	echo $pid
+}
+
+# the JVMs are started from subshells, so they are not children this shell can wait for
+stop() {
+	kill "$@"
+	while kill -0 "$@" 2> /dev/null; do
+		sleep 0.1
+	done
+}
+
+# prints the milliseconds until the first response, the milliseconds spent loading classes, the resident
+# memory and the part of it mapped from CDS archives, both in MB
+measure() {
+	local jdk=$1
+	shift
+	local start end pid
+	start=$(date +%s%N)
+	pid=$(boot "$PORT" "$1" "$2" "$WORK/run" "${@:3}")
+	end=$(date +%s%N)
+	local counters
+	counters=$("$jdk/bin/jcmd" "$pid" PerfCounter.print)
+	echo "$(( (end - start) / 1000000 ))" \
+		"$(awk -F= '/^sun.os.hrt.frequency=/ { f = $2 } /^sun.cls.time=/ { t = $2 } END { print int(t * 1000 / f) }' <<< "$counters")" \
+		"$(awk '/^VmRSS/ { print int($2 / 1024) }' "/proc/$pid/status")" \
+		"$(cds_rss "$pid")"
+	stop "$pid"
+}
+
+cds_rss() {
+	awk '/^[0-9a-f]+-/ { cds = /\.jsa$/ } cds && /^Rss:/ { kb += $2 } END { print int(kb / 1024) }' "/proc/$1/smaps"
+}
+
+median() {
+	sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'
+}
+
+report() {
+	local name=$1
+	shift
+	local results
+	results=$(for _ in $(seq "$RUNS"); do measure "$@"; done)
+	printf '| %-36s | %8s ms | %13s ms | %5s MB | %7s MB |\n' "$name" \
+		"$(cut -d' ' -f1 <<< "$results" | median)" "$(cut -d' ' -f2 <<< "$results" | median)" \
+		"$(cut -d' ' -f3 <<< "$results" | median)" "$(cut -d' ' -f4 <<< "$results" | median)"
+}
+
+# boots two JVMs side by side and prints the sum of their resident memory and of their proportional share
+# of it, pages mapped by both count half for each
+side_by_side() {
+	local name=$1 path=$2
+	shift 2
+	local first second
+	first=$(boot "$PORT" "$path" 200 "$WORK/first" "$@")
+	second=$(boot $(( PORT + 1 )) "$path" 200 "$WORK/second" "$@")
+	printf '| %-36s | %5s MB | %5s MB |\n' "$name" \
+		"$(cat "/proc/$first/smaps_rollup" "/proc/$second/smaps_rollup" | awk '/^Rss:/ { kb += $2 } END { print int(kb / 1024) }')" \
+		"$(cat "/proc/$first/smaps_rollup" "/proc/$second/smaps_rollup" | awk '/^Pss:/ { kb += $2 } END { print int(kb / 1024) }')"
+	stop "$first" "$second"
+}
+
+echo "building the modules..."
+build 01-hello-world "$ROOT/01.Hello-World/hello-world"
+build 02-web-carros "$ROOT/02.Primeira-Entidade/web-carros"
+build 03-web-carros "$ROOT/03.Criando-Servico-TDD/web-carros"
+build 04-web-carros "$ROOT/04.Listando-Usuarios/web-carros"
+build 05-web-carros "$ROOT/05.Isolando-Persistencia-Apresentacao/web-carros"
+build 06-web-carros "$ROOT/06.Adicionando-Usuarios/web-carros"
+build 07-web-carros-fast-boot "$WEB_CARROS" -Pfast-boot
+# built last, so the module is left with its default build
+build 07-web-carros "$WEB_CARROS"
+
+CDS_VERSION=$(java_version "$CDS_JDK")
+if [ "${CDS_VERSION%%.*}" -ge 13 ]; then
+	echo "training the AppCDS archive with JDK $CDS_VERSION..."
+	JAVA_HOME=$CDS_JDK "$WEB_CARROS/cds/train.sh" > /dev/null
+fi
+
+echo "median of $RUNS runs, JAVA_OPTS=$JAVA_OPTS, JDK $(java_version "$JDK")"
+echo "| Módulo                               | 1ª resposta | Carga de classes | RSS      | RSS de CDS |"
+echo "|--------------------------------------|------------:|-----------------:|---------:|-----------:|"
+report 01-hello-world "$JDK" / 200 "$JDK/bin/java" $JAVA_OPTS -jar "$WORK/01-hello-world.jar"
+report 02-web-carros "$JDK" /persons 200 "$JDK/bin/java" $JAVA_OPTS -jar "$WORK/02-web-carros.jar"
+# 03 has no controller yet, its first response is the 404 of the web server
+report 03-web-carros "$JDK" / 404 "$JDK/bin/java" $JAVA_OPTS -jar "$WORK/03-web-carros.jar"
+report 04-web-carros "$JDK" /api/persons 200 "$JDK/bin/java" $JAVA_OPTS -jar "$WORK/04-web-carros.jar"
+report 05-web-carros "$JDK" /api/persons 200 "$JDK/bin/java" $JAVA_OPTS -jar "$WORK/05-web-carros.jar"
+report 06-web-carros "$JDK" /api/persons 200 "$JDK/bin/java" $JAVA_OPTS -jar "$WORK/06-web-carros.jar"
+report 07-web-carros "$JDK" /api/persons 200 "$JDK/bin/java" $JAVA_OPTS -jar "$WORK/07-web-carros.jar"
+report 07-web-carros-fast-boot "$JDK" /api/persons 200 "$JDK/bin/java" $JAVA_OPTS -jar "$WORK/07-web-carros-fast-boot.jar" \
+	--spring.profiles.active=fast-boot
+
+if [ "${CDS_VERSION%%.*}" -lt 13 ]; then
+	echo "skipping AppCDS, CDS_JAVA_HOME must point to JDK 13 or newer, not $CDS_VERSION"
+	exit 0
+fi
+report "07-web-carros JDK $CDS_VERSION" "$CDS_JDK" /api/persons 200 "$CDS_JDK/bin/java" $JAVA_OPTS -jar "$WORK/07-web-carros.jar"
+report "07-web-carros JDK $CDS_VERSION AppCDS" "$CDS_JDK" /api/persons 200 \
+	env JAVA_HOME="$CDS_JDK" JAVA_OPTS="$JAVA_OPTS" "$WEB_CARROS/cds/launch.sh"
+
+echo
+echo "two JVMs side by side, JDK $CDS_VERSION"
+echo "| Módulo                               | RSS      | PSS      |"
+echo "|--------------------------------------|---------:|---------:|"
+side_by_side 07-web-carros /api/persons "$CDS_JDK/bin/java" $JAVA_OPTS -jar "$WORK/07-web-carros.jar"
+side_by_side "07-web-carros AppCDS" /api/persons env JAVA_HOME="$CDS_JDK" JAVA_OPTS="$JAVA_OPTS" "$WEB_CARROS/cds/launch.sh"
@@ -0,0 +1,12 @@
+package com.webcarros;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class WebCarrosReactiveApplication {
+
+	public static void main(final String[] args) {
+		SpringApplication.run(WebCarrosReactiveApplication.class, args);
+	}
+}
@@ -0,0 +1,20 @@
+package com.webcarros.advices;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.webcarros.exceptions.InvalidSearchException;
+
+@ControllerAdvice
+public class InvalidSearchAdvice {
+	
+	@ResponseBody
+	@ExceptionHandler(InvalidSearchException.class)
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public String invalidSearchHandler(final InvalidSearchException e) {
+		return e.getMessage();
+	}
+}
@@ -0,0 +1,214 @@
+package com.webcarros.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonBatchResultDTO;
+import com.webcarros.dto.PersonDTO;
+import com.webcarros.exceptions.PersonVersionConflictException;
+import com.webcarros.services.PersonService;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same contract as the {@code PersonRestController} of {@code web-carros}, on
+ * the event loop. The full-text search endpoints are left out, since the Lucene
+ * index only has a blocking API.
+ */
+@RestController
+@RequestMapping("/api/persons")
+@RequiredArgsConstructor
+public class PersonRestController {
+	
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	
+	public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+	
+	private final PersonService personService;
+	
+	private final ObjectMapper objectMapper;
+	
+	/**
+	 * The page is collected before answering, since the next cursor header can
+	 * only be written before the body. It never holds more than
+	 * {@link PersonService#MAX_PAGE_SIZE} rows.
+	 */
+	@GetMapping
+	public Mono<ResponseEntity<List<PersonDTO>>> listPersons(@RequestParam(required = false) final String after,
+			@RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) final int limit,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+		final String eTag = eTag(personService.getDataVersion());
+		if (matches(ifNoneMatch, eTag)) {
+			return Mono.just(notModified(eTag));
+		}
+		
+		return personService.listPage(after, limit).map(page -> {
+			final List<PersonDTO> body = page.getContent();
+			
+			final ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+			if (page.hasNext()) {
+				response.header(NEXT_CURSOR_HEADER, body.get(body.size() - 1).getCpf());
+			}
+			return response.body(body);
+		});
+	}
+	
+	@GetMapping("/search")
+	public Flux<PersonDTO> search(@RequestParam(required = false) final String name,
+			@RequestParam(required = false) final String email,
+			@RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) final int limit) {
+		return personService.search(name, email, limit);
+	}
+	
+	/**
+	 * One JSON document per line. Rows are only read as the client takes the lines
+	 * in, so a slow client slows the database reads down instead of piling rows up
+	 * in memory. The lines are handed to Netty already encoded, which lets it
+	 * flush them in batches instead of one by one like the streaming JSON codec.
+	 */
+	@GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+	public Flux<DataBuffer> export(final ServerHttpResponse response) {
+		final ObjectWriter writer = objectMapper.writerFor(PersonDTO.class)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		final DataBufferFactory buffers = response.bufferFactory();
+		return personService.exportAll().map(person -> {
+			final DataBuffer line = buffers.allocateBuffer();
+			try (OutputStream out = line.asOutputStream()) {
+				writer.writeValue(out, person);
+				out.write('\n');
+			} catch (final IOException e) {
+				DataBufferUtils.release(line);
+				throw new UncheckedIOException(e);
+			}
+			return line;
+		});
+	}
+	
+	@GetMapping("/{id}")
+	public Mono<ResponseEntity<PersonDTO>> findById(@PathVariable final String id,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+		return personService.findByCPF(id).map(person -> {
+			final String eTag = eTag(person.getVersion());
+			if (matches(ifNoneMatch, eTag)) {
+				return notModified(eTag);
+			}
+			return ResponseEntity.ok().eTag(eTag).body(person);
+		});
+	}
+	
+	@PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseStatus(HttpStatus.CREATED)
+	public Mono<PersonDTO> save(@RequestBody final PersonDTO dto) {
+		return personService.save(this.toEntity(dto)).map(this::toDTO);
+	}
+	
+	@PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<List<PersonBatchResultDTO>> saveAll(@RequestBody final List<PersonDTO> dtos) {
+		final List<Person> persons = dtos.stream()
+				.map(this::toEntity)
+				.collect(Collectors.toList());
+		return personService.saveAll(persons);
+	}
+	
+	@DeleteMapping("/{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public Mono<Void> remove(@PathVariable final String id) {
+		return personService.remove(id);
+	}
+	
+	@DeleteMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public Mono<Void> removeAll(@RequestBody final List<String> ids) {
+		return personService.removeAll(ids).then();
+	}
+	
+	@PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public Mono<ResponseEntity<PersonDTO>> update(@PathVariable final String id, @RequestBody final PersonDTO dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
+		final Long expectedVersion = toVersion(id, ifMatch);
+		return personService.update(id, this.toEntity(dto), expectedVersion)
+				.map(update -> ResponseEntity.ok().eTag(eTag(update.getVersion())).body(this.toDTO(update)));
+	}
+	
+	/**
+	 * Weak comparison of an If-None-Match header, as RFC 7232 asks for GET.
+	 */
+	private static boolean matches(final String ifNoneMatch, final String eTag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (final String candidate : ifNoneMatch.split(",")) {
+			final String tag = candidate.trim();
+			if (tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private static <T> ResponseEntity<T> notModified(final String eTag) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+	}
+	
+	private static String eTag(final Object version) {
+		return "\"" + version + "\"";
+	}
+	
+	/**
+	 * @return the version required by an If-Match header, or null when there is
+	 *         no header or it is {@code *}
+	 * @throws PersonVersionConflictException when the header can never match,
+	 *         like a weak or malformed entity tag
+	 */
+	private static Long toVersion(final String id, final String ifMatch) {
+		if (ifMatch == null || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		final String tag = ifMatch.trim();
+		if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+			try {
+				return Long.valueOf(tag.substring(1, tag.length() - 1));
+			} catch (final NumberFormatException e) {
+				// falls through to the conflict below
+			}
+		}
+		throw new PersonVersionConflictException(id);
+	}
+	
+	private Person toEntity(final PersonDTO dto) {
+		return new Person(dto.getCpf(), dto.getName(), dto.getEmail(), dto.getBirthDate());
+	}
+
+	private PersonDTO toDTO(final Person entity) {
+		return new PersonDTO(entity.getCpf(), entity.getName(), entity.getEmail(), entity.getBirthDate(), entity.getVersion());
+	}
+}
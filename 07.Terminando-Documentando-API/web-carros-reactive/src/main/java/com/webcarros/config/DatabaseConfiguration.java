@@ -0,0 +1,25 @@
+package com.webcarros.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.r2dbc.connectionfactory.init.ConnectionFactoryInitializer;
+import org.springframework.data.r2dbc.connectionfactory.init.ResourceDatabasePopulator;
+
+import io.r2dbc.spi.ConnectionFactory;
+
+/**
+ * Spring Boot does not create R2DBC schemas by itself, so {@code schema.sql}
+ * runs here when the context starts.
+ */
+@Configuration
+public class DatabaseConfiguration {
+	
+	@Bean
+	public ConnectionFactoryInitializer databaseInitializer(final ConnectionFactory connectionFactory) {
+		final ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+		initializer.setConnectionFactory(connectionFactory);
+		initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")));
+		return initializer;
+	}
+}
@@ -0,0 +1,47 @@
+package com.webcarros.domain.entities;
+
+import java.time.LocalDate;
+
+import javax.validation.constraints.Email;
+import javax.validation.constraints.NotNull;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Same table as the JPA entity of {@code web-carros}. The CPF is assigned by
+ * the client, so a null {@link #version} is what tells an insert from an update.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("person")
+public class Person {
+	
+	@Id
+	private String cpf;
+	
+	@NotNull(message = "Name cannot be null")
+	private String name;
+	
+	@Email
+	@NotNull(message = "Email cannot be null")
+	private String email;	
+	
+	private LocalDate birthDate;
+	
+	@Version
+	@EqualsAndHashCode.Exclude
+	private Long version;
+	
+	public Person(final String cpf, final String name, final String email, final LocalDate birthDate) {
+		this(cpf, name, email, birthDate, null);
+	}
+
+}
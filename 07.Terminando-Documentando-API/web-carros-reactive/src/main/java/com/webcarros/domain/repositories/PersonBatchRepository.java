@@ -0,0 +1,20 @@
+package com.webcarros.domain.repositories;
+
+import java.util.List;
+
+import com.webcarros.domain.entities.Person;
+
+import reactor.core.publisher.Mono;
+
+public interface PersonBatchRepository {
+	
+	/**
+	 * Inserts the persons in a single transaction. Like save(), a person never
+	 * replaces another one: when the CPF is already taken, by the table or by a
+	 * person earlier in the list, the row is left as it is. The persons must
+	 * already have the version they are inserted with.
+	 * 
+	 * @return whether each person was inserted, in the same order
+	 */
+	Mono<List<Boolean>> insertAll(List<Person> persons);
+}
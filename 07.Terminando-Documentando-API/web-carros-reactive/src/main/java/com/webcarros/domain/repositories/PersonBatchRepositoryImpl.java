@@ -0,0 +1,48 @@
+package com.webcarros.domain.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.webcarros.domain.entities.Person;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+class PersonBatchRepositoryImpl implements PersonBatchRepository {
+	
+	private static final String INSERT = "MERGE INTO person t "
+			+ "USING (SELECT CAST(:cpf AS VARCHAR) cpf, CAST(:name AS VARCHAR) name, CAST(:email AS VARCHAR) email, CAST(:birthDate AS DATE) birth_date, CAST(:version AS BIGINT) version) s "
+			+ "ON t.cpf = s.cpf "
+			+ "WHEN NOT MATCHED THEN INSERT (cpf, name, email, birth_date, version) VALUES (s.cpf, s.name, s.email, s.birth_date, s.version)";
+	
+	private final DatabaseClient databaseClient;
+	
+	private final TransactionalOperator transactionalOperator;
+	
+	/**
+	 * R2DBC has no JDBC style batch with bind parameters, so the statements run
+	 * one after the other on the same connection, inside the transaction.
+	 */
+	@Override
+	public Mono<List<Boolean>> insertAll(final List<Person> persons) {
+		return Flux.fromIterable(persons)
+				.concatMap(person -> {
+					DatabaseClient.GenericExecuteSpec insert = databaseClient.execute(INSERT)
+							.bind("cpf", person.getCpf())
+							.bind("name", person.getName())
+							.bind("email", person.getEmail())
+							.bind("version", person.getVersion());
+					insert = person.getBirthDate() == null
+							? insert.bindNull("birthDate", LocalDate.class)
+							: insert.bind("birthDate", person.getBirthDate());
+					return insert.fetch().rowsUpdated().map(count -> count != 0);
+				})
+				.as(transactionalOperator::transactional)
+				.collectList();
+	}
+}
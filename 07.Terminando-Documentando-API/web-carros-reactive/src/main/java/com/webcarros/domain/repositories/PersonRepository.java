@@ -0,0 +1,47 @@
+package com.webcarros.domain.repositories;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.webcarros.domain.entities.Person;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface PersonRepository extends ReactiveCrudRepository<Person, String>, PersonBatchRepository {
+	
+	@Query("select * from person where cpf > :after order by cpf limit :limit")
+	Flux<Person> findPage(String after, int limit);
+	
+	@Query("select * from person where name like :name escape '\\' order by name, cpf limit :limit")
+	Flux<Person> searchByName(String name, int limit);
+	
+	@Query("select * from person where name like :name escape '\\' and email like :email escape '\\' order by name, cpf limit :limit")
+	Flux<Person> searchByNameAndEmail(String name, String email, int limit);
+	
+	@Query("select * from person where email like :email escape '\\' order by email, cpf limit :limit")
+	Flux<Person> searchByEmail(String email, int limit);
+	
+	@Query("select * from person order by cpf")
+	Flux<Person> streamAll();
+	
+	@Modifying
+	@Query("update person set name = :name, email = :email, birth_date = :birthDate, version = :newVersion where cpf = :cpf")
+	Mono<Integer> updateDetails(String cpf, String name, String email, LocalDate birthDate, long newVersion);
+	
+	@Modifying
+	@Query("update person set name = :name, email = :email, birth_date = :birthDate, version = :newVersion where cpf = :cpf and version = :version")
+	Mono<Integer> updateDetails(String cpf, String name, String email, LocalDate birthDate, long version, long newVersion);
+	
+	@Modifying
+	@Query("delete from person where cpf = :cpf")
+	Mono<Integer> deleteByCpf(String cpf);
+	
+	@Modifying
+	@Query("delete from person where cpf in (:cpfs)")
+	Mono<Integer> deleteByCpfIn(Collection<String> cpfs);
+}
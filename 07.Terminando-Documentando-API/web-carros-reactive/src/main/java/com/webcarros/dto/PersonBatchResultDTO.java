@@ -0,0 +1,23 @@
+package com.webcarros.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonBatchResultDTO {
+	
+	public enum Status {
+		SAVED, INVALID, CONFLICT, FAILED
+	}
+	
+	private int index;
+	
+	private String cpf;
+	
+	private Status status;
+	
+	private String message;
+}
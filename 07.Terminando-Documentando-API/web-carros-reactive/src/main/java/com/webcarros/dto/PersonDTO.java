@@ -0,0 +1,33 @@
+package com.webcarros.dto;
+
+import java.time.LocalDate;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonDTO {
+	
+	private String cpf;
+	
+	private String name;
+	
+	private String email;	
+	
+	private LocalDate birthDate;
+	
+	/**
+	 * Only used to build the entity tag, it is not part of the JSON body.
+	 */
+	@JsonIgnore
+	private Long version;
+	
+	public PersonDTO(final String cpf, final String name, final String email, final LocalDate birthDate) {
+		this(cpf, name, email, birthDate, null);
+	}
+}
@@ -0,0 +1,9 @@
+package com.webcarros.exceptions;
+
+public class InvalidSearchException extends RuntimeException{
+	public InvalidSearchException() {
+		super("INFORME O PREFIXO DO NOME OU DO EMAIL");
+	}
+
+	private static final long serialVersionUID = -4319862235571096612L;
+}
@@ -0,0 +1,9 @@
+package com.webcarros.exceptions;
+
+public class PersonAlreadyExistsException extends RuntimeException {
+	public PersonAlreadyExistsException(final String personCPF) {
+		super("PESSOA JÁ CADASTRADA " + personCPF);
+	}
+
+	private static final long serialVersionUID = -4296413950817395032L;
+}
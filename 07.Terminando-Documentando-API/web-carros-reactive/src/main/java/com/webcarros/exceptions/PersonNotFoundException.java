@@ -0,0 +1,10 @@
+package com.webcarros.exceptions;
+
+public class PersonNotFoundException extends RuntimeException {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1738222305785338267L;
+
+}
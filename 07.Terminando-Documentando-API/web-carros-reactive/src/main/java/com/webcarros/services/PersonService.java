@@ -0,0 +1,325 @@
+package com.webcarros.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.webcarros.domain.CPF;
+import com.webcarros.domain.entities.Person;
+import com.webcarros.domain.repositories.PersonRepository;
+import com.webcarros.dto.PersonBatchResultDTO;
+import com.webcarros.dto.PersonBatchResultDTO.Status;
+import com.webcarros.dto.PersonDTO;
+import com.webcarros.exceptions.CPFBadFormatedException;
+import com.webcarros.exceptions.InvalidSearchException;
+import com.webcarros.exceptions.PersonAlreadyExistsException;
+import com.webcarros.exceptions.PersonNotFoundException;
+import com.webcarros.exceptions.PersonVersionConflictException;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the {@code PersonService} of {@code web-carros},
+ * with the same rules. Invalid arguments are thrown right away, database
+ * failures are signalled by the returned publishers.
+ */
+@Service
+@RequiredArgsConstructor
+public class PersonService {
+	
+	public static final int DEFAULT_PAGE_SIZE = 50;
+
+	public static final int MAX_PAGE_SIZE = 500;
+	
+	public static final int BATCH_CHUNK_SIZE = 500;
+	
+	public static final int DELETE_CHUNK_SIZE = 1000;
+
+	private final PersonRepository personRepository;
+	
+	private final Validator validator;
+	
+	private final TransactionalOperator transactionalOperator;
+	
+	/**
+	 * Moves forward after every write, so it identifies the current state of the
+	 * whole collection. It is seeded from the clock to keep moving forward across
+	 * restarts.
+	 */
+	private final AtomicLong dataVersion = new AtomicLong(System.currentTimeMillis());
+	
+	/**
+	 * Last version given to a written person. It is seeded from the clock in
+	 * microseconds and only moves forward, so a version, and the ETag made from
+	 * it, never stands for two states of a person, not even after the person is
+	 * deleted and created again.
+	 */
+	private final AtomicLong personVersion = new AtomicLong();
+	
+	public long getDataVersion() {
+		return dataVersion.get();
+	}
+	
+	private long nextPersonVersion() {
+		final long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+		return personVersion.updateAndGet(last -> Math.max(last + 1, now));
+	}
+
+	/**
+	 * Lists persons ordered by CPF, starting right after the {@code after} cursor.
+	 * One row more than the page size is read to tell whether there is a next page.
+	 */
+	public Mono<Slice<PersonDTO>> listPage(final String after, final int limit) {
+		final String cursor = after == null ? "" : CPF.normalize(after);
+		final int size = pageSize(limit);
+		return personRepository.findPage(cursor, size + 1)
+				.map(PersonService::toDTO)
+				.collectList()
+				.map(rows -> new SliceImpl<>(rows.subList(0, Math.min(size, rows.size())),
+						PageRequest.of(0, size, Sort.by("cpf")), rows.size() > size));
+	}
+	
+	/**
+	 * Finds persons whose name and/or email start with the given prefixes,
+	 * returning at most {@link #MAX_PAGE_SIZE} of them.
+	 * 
+	 * @throws InvalidSearchException when neither prefix is given
+	 */
+	public Flux<PersonDTO> search(final String name, final String email, final int limit) {
+		final boolean byName = name != null && !name.isEmpty();
+		final boolean byEmail = email != null && !email.isEmpty();
+		if (!byName && !byEmail) {
+			throw new InvalidSearchException();
+		}
+		
+		final Flux<Person> persons;
+		if (byName && byEmail) {
+			persons = personRepository.searchByNameAndEmail(prefixPattern(name), prefixPattern(email), pageSize(limit));
+		} else if (byName) {
+			persons = personRepository.searchByName(prefixPattern(name), pageSize(limit));
+		} else {
+			persons = personRepository.searchByEmail(prefixPattern(email), pageSize(limit));
+		}
+		return persons.map(PersonService::toDTO);
+	}
+	
+	private static int pageSize(final int limit) {
+		return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+	}
+	
+	/**
+	 * @return a LIKE pattern matching values starting with {@code prefix}, with
+	 *         its wildcards escaped by {@code \}
+	 */
+	private static String prefixPattern(final String prefix) {
+		return prefix.replace("\\", "\\\\")
+				.replace("%", "\\%")
+				.replace("_", "\\_") + "%";
+	}
+
+	/**
+	 * Streams every person ordered by CPF. Rows are only read as fast as the
+	 * subscriber requests them.
+	 */
+	public Flux<PersonDTO> exportAll() {
+		return personRepository.streamAll().map(PersonService::toDTO);
+	}
+
+	/**
+	 * Inserts the person as a batch of one, so it gets its version from
+	 * {@link #nextPersonVersion()} like every other write.
+	 */
+	public Mono<Person> save(final Person person) {
+		person.setCpf(CPF.normalize(person.getCpf()));
+		this.checkConstraints(person);
+		person.setVersion(this.nextPersonVersion());
+		
+		return personRepository.insertAll(List.of(person))
+				.flatMap(inserted -> inserted.get(0)
+						? Mono.just(person)
+						: Mono.error(new PersonAlreadyExistsException(person.getCpf())))
+				.doFinally(signal -> dataVersion.incrementAndGet());
+	}
+
+	/**
+	 * Validates every person and inserts the valid ones in chunks of
+	 * {@link #BATCH_CHUNK_SIZE}, each chunk in its own transaction. An invalid
+	 * person, a CPF already taken or a failed chunk does not stop the remaining
+	 * ones.
+	 * 
+	 * @return one result per person, in the same order
+	 */
+	public Mono<List<PersonBatchResultDTO>> saveAll(final List<Person> persons) {
+		final List<PersonBatchResultDTO> results = new ArrayList<>(persons.size());
+		final List<List<Person>> chunks = new ArrayList<>();
+		final List<List<PersonBatchResultDTO>> chunkResults = new ArrayList<>();
+		
+		for (int i = 0; i < persons.size(); i++) {
+			final Person person = persons.get(i);
+			final String error = this.validate(person);
+			if (error != null) {
+				results.add(new PersonBatchResultDTO(i, person == null ? null : person.getCpf(), Status.INVALID, error));
+				continue;
+			}
+			
+			final PersonBatchResultDTO result = new PersonBatchResultDTO(i, person.getCpf(), Status.SAVED, null);
+			results.add(result);
+			if (chunks.isEmpty() || chunks.get(chunks.size() - 1).size() == BATCH_CHUNK_SIZE) {
+				chunks.add(new ArrayList<>(BATCH_CHUNK_SIZE));
+				chunkResults.add(new ArrayList<>(BATCH_CHUNK_SIZE));
+			}
+			chunks.get(chunks.size() - 1).add(person);
+			chunkResults.get(chunkResults.size() - 1).add(result);
+		}
+		
+		return Flux.range(0, chunks.size())
+				.concatMap(c -> this.saveChunk(chunks.get(c), chunkResults.get(c)))
+				.then(Mono.fromCallable(() -> {
+					dataVersion.incrementAndGet();
+					return results;
+				}));
+	}
+	
+	private String validate(final Person person) {
+		if (person == null) {
+			return "Person cannot be null";
+		}
+		try {
+			person.setCpf(CPF.normalize(person.getCpf()));
+		} catch (final CPFBadFormatedException e) {
+			return e.getMessage();
+		}
+		final Set<ConstraintViolation<Person>> violations = validator.validate(person);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream()
+				.map(v -> v.getPropertyPath() + ": " + v.getMessage())
+				.sorted()
+				.collect(Collectors.joining(", "));
+	}
+	
+	private Mono<Void> saveChunk(final List<Person> chunk, final List<PersonBatchResultDTO> chunkResults) {
+		chunk.forEach(person -> person.setVersion(this.nextPersonVersion()));
+		return personRepository.insertAll(chunk)
+				.doOnNext(inserted -> {
+					for (int i = 0; i < chunk.size(); i++) {
+						if (!inserted.get(i)) {
+							chunkResults.get(i).setStatus(Status.CONFLICT);
+							chunkResults.get(i).setMessage(new PersonAlreadyExistsException(chunk.get(i).getCpf()).getMessage());
+						}
+					}
+				})
+				.then()
+				.onErrorResume(DataAccessException.class, e -> {
+					chunkResults.forEach(r -> {
+						r.setStatus(Status.FAILED);
+						r.setMessage(e.getMostSpecificCause().getMessage());
+					});
+					return Mono.empty();
+				});
+	}
+
+	public Mono<PersonDTO> findByCPF(final String cpf) {
+		final String replaceCPF = CPF.normalize(cpf);
+		return personRepository.findById(replaceCPF)
+				.map(PersonService::toDTO)
+				.switchIfEmpty(Mono.error(PersonNotFoundException::new));
+	}
+
+	/**
+	 * Updates the person's details with a single UPDATE statement. When
+	 * {@code expectedVersion} is not null the update only happens if the stored
+	 * person still has that version, without taking any lock. The returned person
+	 * has the new version, which the statement writes instead of reading.
+	 * 
+	 * @throws PersonVersionConflictException when the stored version is another one
+	 */
+	public Mono<Person> update(final String cpf, final Person updatePerson, final Long expectedVersion) {
+		final Person person = new Person(CPF.normalize(cpf), updatePerson.getName(),
+				updatePerson.getEmail(), updatePerson.getBirthDate());
+		this.checkConstraints(person);
+		
+		final long version = this.nextPersonVersion();
+		final Mono<Integer> updated = expectedVersion == null
+				? personRepository.updateDetails(person.getCpf(), person.getName(), person.getEmail(), person.getBirthDate(), version)
+				: personRepository.updateDetails(person.getCpf(), person.getName(), person.getEmail(), person.getBirthDate(), expectedVersion, version);
+		return updated.flatMap(count -> {
+			if (count > 0) {
+				dataVersion.incrementAndGet();
+				person.setVersion(version);
+				return Mono.just(person);
+			}
+			if (expectedVersion == null) {
+				return Mono.error(new PersonNotFoundException());
+			}
+			return personRepository.existsById(person.getCpf())
+					.flatMap(exists -> Mono.error(exists
+							? new PersonVersionConflictException(person.getCpf())
+							: new PersonNotFoundException()));
+		});
+	}	
+	
+	public Mono<Void> remove(final String cpf) {
+		final String id = CPF.normalize(cpf);
+		return personRepository.deleteByCpf(id)
+				.flatMap(count -> count == 0 ? Mono.error(new PersonNotFoundException()) : Mono.just(count))
+				.doOnSuccess(count -> dataVersion.incrementAndGet())
+				.then();
+	}
+	
+	/**
+	 * Deletes all the given persons in one transaction, with one DELETE statement
+	 * for every {@link #DELETE_CHUNK_SIZE} CPFs. Unknown CPFs are ignored.
+	 * 
+	 * @return the number of deleted persons
+	 */
+	public Mono<Integer> removeAll(final List<String> cpfs) {
+		final List<String> ids = cpfs.stream()
+				.map(CPF::normalize)
+				.distinct()
+				.collect(Collectors.toList());
+		if (ids.isEmpty()) {
+			return Mono.just(0);
+		}
+		
+		return Flux.range(0, (ids.size() + DELETE_CHUNK_SIZE - 1) / DELETE_CHUNK_SIZE)
+				.concatMap(c -> personRepository.deleteByCpfIn(
+						ids.subList(c * DELETE_CHUNK_SIZE, Math.min((c + 1) * DELETE_CHUNK_SIZE, ids.size()))))
+				.reduce(0, Integer::sum)
+				.as(transactionalOperator::transactional)
+				.doOnSuccess(count -> dataVersion.incrementAndGet());
+	}
+	
+	/**
+	 * The UPDATE statements and R2DBC inserts bypass bean validation, so
+	 * constraints are checked here.
+	 */
+	private void checkConstraints(final Person person) {
+		final Set<ConstraintViolation<Person>> violations = validator.validate(person);
+		if (!violations.isEmpty()) {
+			throw new ConstraintViolationException(violations);
+		}
+	}
+	
+	private static PersonDTO toDTO(final Person person) {
+		return new PersonDTO(person.getCpf(), person.getName(), person.getEmail(), person.getBirthDate(), person.getVersion());
+	}
+}
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS person (
+	cpf VARCHAR(255) PRIMARY KEY,
+	name VARCHAR(255) NOT NULL,
+	email VARCHAR(255) NOT NULL,
+	birth_date DATE,
+	version BIGINT
+);
+
+CREATE INDEX IF NOT EXISTS idx_person_name ON person (name);
+
+CREATE INDEX IF NOT EXISTS idx_person_email ON person (email);
@@ -0,0 +1,274 @@
+package com.webcarros.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.domain.repositories.PersonRepository;
+import com.webcarros.dto.PersonBatchResultDTO;
+import com.webcarros.dto.PersonBatchResultDTO.Status;
+import com.webcarros.dto.PersonDTO;
+
+import reactor.core.publisher.Flux;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class PersonRestControllerTest {
+	
+	@Autowired WebTestClient webTestClient;
+	
+	@Autowired PersonRepository personRepository;
+	
+	@BeforeEach
+	void setUp() {
+		personRepository.deleteAll().block();
+	}
+	
+	private void givenPersons(final Person... persons) {
+		personRepository.saveAll(Flux.just(persons)).blockLast();
+	}
+	
+	private static List<String> cpfs(final List<PersonDTO> persons) {
+		return persons.stream().map(PersonDTO::getCpf).collect(Collectors.toList());
+	}
+	
+	@Test
+	void testSaveAndFindById() {
+		//Arrange
+		final PersonDTO dto = new PersonDTO("123.456.789-09", "person1", "person1@email.com.br", LocalDate.parse("2000-01-01"));
+		
+		//Act
+		this.webTestClient.post().uri("/api/persons")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(dto)
+			.exchange()
+			//Assert
+			.expectStatus().isCreated()
+			.expectBody()
+			.jsonPath("$.cpf").isEqualTo("12345678909")
+			.jsonPath("$.version").doesNotExist();
+		
+		final Long version = personRepository.findById("12345678909").block().getVersion();
+		assertThat(version).isPositive();
+		this.webTestClient.get().uri("/api/persons/12345678909")
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + version + "\"")
+			.expectBody(PersonDTO.class).isEqualTo(new PersonDTO("12345678909", "person1", "person1@email.com.br", LocalDate.parse("2000-01-01")));
+	}
+	
+	@Test
+	void testSaveExistingPerson() {
+		//Arrange
+		givenPersons(new Person("12345678909", "person1", "person1@email.com.br", null));
+		
+		//Act
+		this.webTestClient.post().uri("/api/persons")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(new PersonDTO("12345678909", "other", "other@email.com.br", null))
+			.exchange()
+			//Assert
+			.expectStatus().isEqualTo(HttpStatus.CONFLICT);
+	}
+	
+	@Test
+	void testFindByIdErrors() {
+		//Act
+		//Assert
+		this.webTestClient.get().uri("/api/persons/12345678909").exchange().expectStatus().isNotFound();
+		this.webTestClient.get().uri("/api/persons/12345678900").exchange().expectStatus().isBadRequest();
+	}
+	
+	@Test
+	void testListPagesByCursor() {
+		//Arrange
+		givenPersons(new Person("98765432100", "person3", "person3@email.com.br", null),
+				new Person("12345678909", "person1", "person1@email.com.br", null),
+				new Person("52998224725", "person2", "person2@email.com.br", null));
+		
+		//Act
+		this.webTestClient.get().uri("/api/persons?limit=2")
+			.exchange()
+			//Assert
+			.expectStatus().isOk()
+			.expectHeader().valueEquals(PersonRestController.NEXT_CURSOR_HEADER, "52998224725")
+			.expectBodyList(PersonDTO.class).value(persons -> assertThat(cpfs(persons)).isEqualTo(List.of("12345678909", "52998224725")));
+		
+		this.webTestClient.get().uri("/api/persons?limit=2&after=52998224725")
+			.exchange()
+			.expectStatus().isOk()
+			.expectHeader().doesNotExist(PersonRestController.NEXT_CURSOR_HEADER)
+			.expectBodyList(PersonDTO.class).value(persons -> assertThat(cpfs(persons)).isEqualTo(List.of("98765432100")));
+	}
+	
+	@Test
+	void testListNotModifiedUntilAWrite() {
+		//Arrange
+		final String eTag = this.webTestClient.get().uri("/api/persons")
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(PersonDTO.class).getResponseHeaders().getETag();
+		
+		//Act
+		//Assert
+		this.webTestClient.get().uri("/api/persons")
+			.header(HttpHeaders.IF_NONE_MATCH, eTag)
+			.exchange()
+			.expectStatus().isNotModified();
+		
+		this.webTestClient.post().uri("/api/persons")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(new PersonDTO("12345678909", "person1", "person1@email.com.br", null))
+			.exchange()
+			.expectStatus().isCreated();
+		
+		this.webTestClient.get().uri("/api/persons")
+			.header(HttpHeaders.IF_NONE_MATCH, eTag)
+			.exchange()
+			.expectStatus().isOk();
+	}
+	
+	@Test
+	void testExportStreamsOneLinePerPerson() {
+		//Arrange
+		givenPersons(new Person("52998224725", "person2", "person2@email.com.br", null),
+				new Person("12345678909", "person1", "person1@email.com.br", LocalDate.parse("2000-01-01")));
+		
+		//Act
+		final String body = this.webTestClient.get().uri("/api/persons/export")
+				.exchange()
+				//Assert
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(PersonRestController.APPLICATION_NDJSON_VALUE)
+				.expectBody(String.class).returnResult().getResponseBody();
+		
+		assertThat(body.split("\n")).containsExactly(
+				"{\"cpf\":\"12345678909\",\"name\":\"person1\",\"email\":\"person1@email.com.br\",\"birthDate\":\"2000-01-01\"}",
+				"{\"cpf\":\"52998224725\",\"name\":\"person2\",\"email\":\"person2@email.com.br\",\"birthDate\":null}");
+	}
+	
+	@Test
+	void testUpdateChecksIfMatch() {
+		//Arrange
+		givenPersons(new Person("12345678909", "person1", "person1@email.com.br", null));
+		final PersonDTO update = new PersonDTO("12345678909", "updated", "updated@email.com.br", null);
+		
+		//Act
+		final String eTag = this.webTestClient.put().uri("/api/persons/12345678909")
+			.header(HttpHeaders.IF_MATCH, "\"0\"")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(update)
+			.exchange()
+			//Assert
+			.expectStatus().isOk()
+			.returnResult(PersonDTO.class).getResponseHeaders().getETag();
+		
+		assertThat(eTag).isEqualTo("\"" + personRepository.findById("12345678909").block().getVersion() + "\"");
+		
+		this.webTestClient.put().uri("/api/persons/12345678909")
+			.header(HttpHeaders.IF_MATCH, "\"0\"")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(update)
+			.exchange()
+			.expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+		
+		final String unconditional = this.webTestClient.put().uri("/api/persons/12345678909")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(update)
+			.exchange()
+			.expectStatus().isOk()
+			.returnResult(PersonDTO.class).getResponseHeaders().getETag();
+		assertThat(unconditional).isEqualTo("\"" + personRepository.findById("12345678909").block().getVersion() + "\"");
+		
+		this.webTestClient.put().uri("/api/persons/52998224725")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(update)
+			.exchange()
+			.expectStatus().isNotFound();
+	}
+	
+	@Test
+	void testRemove() {
+		//Arrange
+		givenPersons(new Person("12345678909", "person1", "person1@email.com.br", null),
+				new Person("52998224725", "person2", "person2@email.com.br", null),
+				new Person("98765432100", "person3", "person3@email.com.br", null));
+		
+		//Act
+		//Assert
+		this.webTestClient.delete().uri("/api/persons/12345678909").exchange().expectStatus().isNoContent();
+		this.webTestClient.delete().uri("/api/persons/12345678909").exchange().expectStatus().isNotFound();
+		
+		this.webTestClient.method(HttpMethod.DELETE).uri("/api/persons")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue(List.of("529.982.247-25", "98765432100", "12345678909"))
+			.exchange()
+			.expectStatus().isNoContent();
+		assertThat(personRepository.count().block()).isZero();
+	}
+	
+	@Test
+	void testSaveAllReportsEachPerson() {
+		//Arrange
+		givenPersons(new Person("12345678909", "person1", "person1@email.com.br", null));
+		final List<PersonDTO> dtos = List.of(
+				new PersonDTO("12345678909", "updated", "updated@email.com.br", null),
+				new PersonDTO("12345678900", "invalid", "invalid@email.com.br", null),
+				new PersonDTO("52998224725", "person2", "person2@email.com.br", null));
+		
+		//Act
+		final List<PersonBatchResultDTO> results = this.webTestClient.post().uri("/api/persons/batch")
+				.contentType(MediaType.APPLICATION_JSON)
+				.bodyValue(dtos)
+				.exchange()
+				//Assert
+				.expectStatus().isOk()
+				.expectBodyList(PersonBatchResultDTO.class).returnResult().getResponseBody();
+		
+		assertThat(results).extracting(PersonBatchResultDTO::getStatus).containsExactly(Status.CONFLICT, Status.INVALID, Status.SAVED);
+		assertThat(results.get(0).getMessage()).isEqualTo("PESSOA JÁ CADASTRADA 12345678909");
+		assertThat(personRepository.findById("12345678909").block().getName()).isEqualTo("person1");
+		assertThat(personRepository.findById("12345678909").block().getVersion()).isZero();
+		assertThat(personRepository.count().block()).isEqualTo(2L);
+	}
+	
+	@Test
+	void testSearchByPrefix() {
+		//Arrange
+		givenPersons(new Person("12345678909", "ANA_SOUZA", "ana@email.com.br", null),
+				new Person("52998224725", "ANAX", "anax@email.com.br", null),
+				new Person("98765432100", "MARIA", "ana2@email.com.br", null));
+		
+		//Act
+		//Assert
+		this.webTestClient.get().uri("/api/persons/search?name=ANA_")
+			.exchange()
+			.expectStatus().isOk()
+			.expectBodyList(PersonDTO.class).value(persons -> assertThat(cpfs(persons)).isEqualTo(List.of("12345678909")));
+		
+		this.webTestClient.get().uri("/api/persons/search?email=ana")
+			.exchange()
+			.expectStatus().isOk()
+			.expectBodyList(PersonDTO.class).value(persons -> assertThat(cpfs(persons)).isEqualTo(List.of("98765432100", "12345678909", "52998224725")));
+		
+		this.webTestClient.get().uri("/api/persons/search?name=ANA&email=anax")
+			.exchange()
+			.expectStatus().isOk()
+			.expectBodyList(PersonDTO.class).value(persons -> assertThat(cpfs(persons)).isEqualTo(List.of("52998224725")));
+		
+		this.webTestClient.get().uri("/api/persons/search").exchange().expectStatus().isBadRequest();
+	}
+}
@@ -0,0 +1,59 @@
+package com.webcarros.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.webcarros.exceptions.CPFBadFormatedException;
+
+public class CPFTest {
+	
+	@Test
+	void testNormalizedCPFIsReturnedAsIs() {
+		//Arrange
+		final String cpf = "12345678909";
+		
+		//Act
+		final String ret = CPF.normalize(cpf);
+		
+		//Assert
+		assertThat(ret).isSameAs(cpf);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"123.456.789-09", "123456789-09", "123.456.78909", "529.982.247-25"})
+	void testRemoveDotsAndTraces(final String cpf) {
+		//Act
+		final String ret = CPF.normalize(cpf);
+		
+		//Assert
+		assertThat(ret).isEqualTo(cpf.replace(".", "").replace("-", ""));
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"", "123.ABC.789-09", "1234567890", "123456789090", "123 456 789 09", "111.111.111-11"})
+	void testBadFormatedCPF(final String cpf) {
+		//Act
+		//Assert
+		final CPFBadFormatedException ex = assertThrows(CPFBadFormatedException.class, () -> CPF.normalize(cpf));
+		assertThat(ex.getMessage()).contains(cpf);
+	}
+	
+	@ParameterizedTest
+	@ValueSource(strings = {"123.456.789-01", "123.456.789-19", "529.982.247-24"})
+	void testWrongCheckDigits(final String cpf) {
+		//Act
+		//Assert
+		assertThrows(CPFBadFormatedException.class, () -> CPF.normalize(cpf));
+	}
+	
+	@Test
+	void testNullCPF() {
+		//Act
+		//Assert
+		assertThrows(CPFBadFormatedException.class, () -> CPF.normalize(null));
+	}
+}
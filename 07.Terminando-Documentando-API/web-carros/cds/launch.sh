@@ -0,0 +1,13 @@
+#!/usr/bin/env bash
+#
+# Starts web-carros from target/cds with the AppCDS archive written by
+# train.sh, using the same JDK. The arguments go to the application and
+# JAVA_OPTS to the JVM. A stale archive is ignored with a warning, -Xlog:cds
+# in JAVA_OPTS tells why.
+set -euo pipefail
+
+CDS=$(cd "$(dirname "$0")/../target/cds" && pwd)
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+
+exec "$JAVA" -XX:SharedArchiveFile="$CDS/web-carros.jsa" ${JAVA_OPTS:-} -cp "$(cat "$CDS/classpath")" \
+	com.webcarros.WebCarrosApplication "$@"
@@ -0,0 +1,61 @@
+#!/usr/bin/env bash
+#
+# Builds target/cds from the exec jar: its libraries as plain jars, so the JVM
+# can archive their classes, and a dynamic AppCDS archive of the classes loaded
+# by a training run, a boot followed by a request to each endpoint. launch.sh
+# starts the application with that archive.
+#
+# Needs JDK 13 or newer in JAVA_HOME, the archive only works with the JDK that
+# wrote it. Run after ./mvnw package, or build everything with
+# ./mvnw package -Pappcds -Dcds.java.home=/path/to/jdk
+set -euo pipefail
+
+HERE=$(cd "$(dirname "$0")" && pwd)
+TARGET=$(cd "$HERE/../target" && pwd)
+CDS=$TARGET/cds
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+PORT=${PORT:-8095}
+URL=http://localhost:$PORT/api/persons
+
+version=$("$JAVA" -XshowSettings:properties -version 2>&1 | awk -F' = ' '/java.specification.version/ { print $2 }')
+if [ "${version%%.*}" -lt 13 ]; then
+	echo "dynamic AppCDS archives need JDK 13 or newer, $JAVA is $version" >&2
+	exit 1
+fi
+
+rm -rf "$CDS"
+mkdir -p "$CDS/lib" "$CDS/training"
+unzip -q -j "$TARGET"/web-carros-*-exec.jar 'BOOT-INF/lib/*' -d "$CDS/lib"
+cp "$(ls "$TARGET"/web-carros-*.jar | grep -v -e '-exec\.jar$')" "$CDS/web-carros.jar"
+# the archive is only used with the same class path, in the same order as the exec jar
+{
+	echo -n "$CDS/web-carros.jar"
+	unzip -p "$TARGET"/web-carros-*-exec.jar BOOT-INF/classpath.idx | sed -e 's/^- "\(.*\)"$/\1/' \
+		| while read -r lib; do echo -n ":$CDS/lib/$lib"; done
+} > "$CDS/classpath"
+
+(cd "$CDS/training" && exec "$JAVA" -XX:ArchiveClassesAtExit="$CDS/web-carros.jsa" \
+	-cp "$(cat "$CDS/classpath")" com.webcarros.WebCarrosApplication --server.port="$PORT" > "$CDS/training.log" 2>&1) &
+pid=$!
+until curl -sf -o /dev/null "$URL"; do
+	kill -0 $pid 2> /dev/null || { cat "$CDS/training.log"; exit 1; }
+	sleep 0.5
+done
+
+person='{"cpf":"529.982.247-25","name":"DEBIAN","email":"debian@debian.org","birthDate":"1993-08-16"}'
+curl -sf -o /dev/null -H 'Content-Type: application/json' -d "$person" "$URL"
+curl -sf -o /dev/null -H 'Content-Type: application/json' -d "[$person]" "$URL/batch"
+curl -sf -o /dev/null -X PUT -H 'Content-Type: application/json' -d "$person" "$URL/52998224725"
+curl -sf -o /dev/null "$URL/52998224725"
+curl -sf -o /dev/null "$URL?limit=10"
+curl -sf -o /dev/null "$URL/search?name=DEB"
+curl -sf -o /dev/null "$URL/search/index" -X POST
+curl -sf -o /dev/null "$URL/search/full-text?q=debian"
+curl -sf -o /dev/null "$URL/export"
+curl -sf -o /dev/null -X DELETE "$URL/52998224725"
+curl -s -o /dev/null "$URL/52998224725"
+
+# the archive is written when the JVM exits
+kill $pid
+wait $pid 2> /dev/null || true
+ls -l "$CDS/web-carros.jsa"
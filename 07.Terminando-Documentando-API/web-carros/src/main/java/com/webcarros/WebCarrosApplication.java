@@ -1,19 +1,16 @@
 package com.webcarros;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
 public class WebCarrosApplication {
 
 	public static void main(final String[] args) {
 		SpringApplication.run(WebCarrosApplication.class, args);
 	}
-	
-	@Bean
-	ModelMapper modelMapper() {
-		return new ModelMapper();
-	}
 }
@@ -0,0 +1,30 @@
+package com.webcarros.advices;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ControllerAdvice
+public class ExecutorSaturatedAdvice {
+	
+	/**
+	 * The message is always plain text, even when the client asked for CBOR or
+	 * Smile.
+	 */
+	@ResponseBody
+	@ExceptionHandler(RejectedExecutionException.class)
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	public String executorSaturatedHandler(final RejectedExecutionException e, final HttpServletResponse response) {
+		response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+		response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+		return "SERVIDOR OCUPADO, TENTE NOVAMENTE";
+	}
+}
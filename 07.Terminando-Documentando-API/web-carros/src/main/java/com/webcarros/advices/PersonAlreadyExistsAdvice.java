@@ -0,0 +1,20 @@
+package com.webcarros.advices;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.webcarros.exceptions.PersonAlreadyExistsException;
+
+@ControllerAdvice
+public class PersonAlreadyExistsAdvice {
+	
+	@ResponseBody
+	@ExceptionHandler(PersonAlreadyExistsException.class)
+	@ResponseStatus(HttpStatus.CONFLICT)
+	public String personAlreadyExistsHandler(final PersonAlreadyExistsException e) {
+		return e.getMessage();
+	}
+}
@@ -0,0 +1,17 @@
+package com.webcarros.advices;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.webcarros.exceptions.PersonNotFoundException;
+
+@ControllerAdvice
+public class PersonNotFoundAdvice {
+	
+	@ExceptionHandler(PersonNotFoundException.class)
+	@ResponseStatus(HttpStatus.NOT_FOUND)
+	public void personNotFoundHandler() {
+	}
+}
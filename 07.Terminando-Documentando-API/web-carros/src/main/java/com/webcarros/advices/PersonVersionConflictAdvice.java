@@ -0,0 +1,20 @@
+package com.webcarros.advices;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.webcarros.exceptions.PersonVersionConflictException;
+
+@ControllerAdvice
+public class PersonVersionConflictAdvice {
+	
+	@ResponseBody
+	@ExceptionHandler(PersonVersionConflictException.class)
+	@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+	public String personVersionConflictHandler(final PersonVersionConflictException e) {
+		return e.getMessage();
+	}
+}
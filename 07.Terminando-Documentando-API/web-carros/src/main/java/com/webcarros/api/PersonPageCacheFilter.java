@@ -0,0 +1,217 @@
+package com.webcarros.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.webcarros.services.PersonService;
+
+/**
+ * Keeps the gzipped bodies of GET /api/persons, so a page asked for again is
+ * neither read, serialized nor compressed again until a write moves the data
+ * version of PersonService forward.
+ * <p>
+ * Only clients accepting gzip go through the cache, the others get the page
+ * from the controller as usual. Bodies are kept per query and Accept header,
+ * since the same page can be JSON, CBOR or Smile. Bodies below
+ * {@code server.compression.min-response-size} are kept as they are. A
+ * conditional request is left to the controller, which answers it without a
+ * body.
+ */
+@Component
+public class PersonPageCacheFilter extends OncePerRequestFilter {
+
+	private static final String LIST_PATH = "/api/persons";
+
+	private static final String GZIP = "gzip";
+
+	private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+	private final PersonService personService;
+
+	private final Cache<String, Page> pages;
+
+	private final boolean compress;
+
+	private final long minCompressSize;
+
+	public PersonPageCacheFilter(final PersonService personService,
+			@Value("${webcarros.cache.page.max-size:16MB}") final DataSize maxSize,
+			@Value("${server.compression.enabled:false}") final boolean compress,
+			@Value("${server.compression.min-response-size:2KB}") final DataSize minCompressSize) {
+		this.personService = personService;
+		this.pages = Caffeine.newBuilder()
+				.maximumWeight(maxSize.toBytes())
+				.<String, Page>weigher((key, page) -> key.length() + page.body.length)
+				.build();
+		this.compress = compress;
+		this.minCompressSize = minCompressSize.toBytes();
+	}
+
+	@Override
+	protected boolean shouldNotFilter(final HttpServletRequest request) {
+		return !request.getMethod().equals("GET") || !urlPathHelper.getPathWithinApplication(request).equals(LIST_PATH);
+	}
+
+	/**
+	 * The controller answers asynchronously, the body is only there on the
+	 * dispatch that follows.
+	 */
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	@Override
+	protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+			final FilterChain filterChain) throws ServletException, IOException {
+		if (!acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+			// the same page is gzipped for other clients
+			if (!isAsyncDispatch(request)) {
+				response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			}
+			filterChain.doFilter(request, response);
+			return;
+		}
+		final String key = Objects.toString(request.getQueryString(), "") + " "
+				+ Objects.toString(request.getHeader(HttpHeaders.ACCEPT), "");
+		if (!isAsyncDispatch(request)) {
+			final String eTag = PersonRestController.eTag(personService.getDataVersion());
+			final Page page = pages.getIfPresent(key);
+			if (page != null && page.eTag.equals(eTag)
+					&& !PersonRestController.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), eTag)) {
+				page.headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+				page.writeBody(response);
+				return;
+			}
+		}
+
+		final ContentCachingResponseWrapper wrapper = response instanceof ContentCachingResponseWrapper
+				? (ContentCachingResponseWrapper) response
+				: new ContentCachingResponseWrapper(response);
+		filterChain.doFilter(request, wrapper);
+		if (isAsyncStarted(request)) {
+			return;
+		}
+
+		final String eTag = wrapper.getHeader(HttpHeaders.ETAG);
+		if (wrapper.getStatus() != HttpStatus.OK.value() || eTag == null) {
+			wrapper.copyBodyToResponse();
+			return;
+		}
+		final Page page = new Page(eTag, wrapper, compress && wrapper.getContentSize() >= minCompressSize);
+		pages.put(key, page);
+		page.writeBody((HttpServletResponse) wrapper.getResponse());
+	}
+
+	/**
+	 * @return whether gzip is listed without {@code q=0}, or, when it is not
+	 *         listed, whether {@code *} is
+	 */
+	static boolean acceptsGzip(final String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		boolean any = false;
+		for (final String candidate : acceptEncoding.split(",")) {
+			final int semicolon = candidate.indexOf(';');
+			final String coding = (semicolon < 0 ? candidate : candidate.substring(0, semicolon)).trim();
+			final boolean accepted = semicolon < 0 || !isZeroQuality(candidate.substring(semicolon + 1));
+			if (coding.equalsIgnoreCase(GZIP)) {
+				return accepted;
+			}
+			if (coding.equals("*")) {
+				any = accepted;
+			}
+		}
+		return any;
+	}
+
+	/**
+	 * @return whether the parameters hold a {@code q} of zero, like {@code q=0}
+	 *         or {@code q=0.000}
+	 */
+	private static boolean isZeroQuality(final String parameters) {
+		for (final String parameter : parameters.split(";")) {
+			final String trimmed = parameter.trim();
+			if (trimmed.length() < 2 || (trimmed.charAt(0) != 'q' && trimmed.charAt(0) != 'Q') || trimmed.charAt(1) != '=') {
+				continue;
+			}
+			final String value = trimmed.substring(2).trim();
+			if (value.isEmpty() || value.charAt(0) != '0') {
+				return false;
+			}
+			for (int i = 1; i < value.length(); i++) {
+				if (value.charAt(i) != '0' && value.charAt(i) != '.') {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A body as sent, with the headers the controller set for it.
+	 */
+	private static final class Page {
+
+		private final String eTag;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		private final byte[] body;
+
+		private final boolean gzip;
+
+		private Page(final String eTag, final ContentCachingResponseWrapper response, final boolean gzip) throws IOException {
+			this.eTag = eTag;
+			for (final String name : response.getHeaderNames()) {
+				headers.addAll(name, new ArrayList<>(response.getHeaders(name)));
+			}
+			headers.remove(HttpHeaders.CONTENT_LENGTH);
+			headers.set(HttpHeaders.CONTENT_TYPE, response.getContentType());
+			this.body = gzip ? gzip(response.getContentAsByteArray()) : response.getContentAsByteArray();
+			this.gzip = gzip;
+		}
+
+		/**
+		 * Also sets the headers that depend on the compression, the others are
+		 * already in the response.
+		 */
+		private void writeBody(final HttpServletResponse response) throws IOException {
+			response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			if (gzip) {
+				response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+			}
+			response.setContentLength(body.length);
+			response.getOutputStream().write(body);
+		}
+
+		private static byte[] gzip(final byte[] content) throws IOException {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4);
+			try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+				gzip.write(content);
+			}
+			return out.toByteArray();
+		}
+	}
+}
@@ -1,23 +1,42 @@
 package com.webcarros.api;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import org.modelmapper.ModelMapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonBatchResultDTO;
 import com.webcarros.dto.PersonDTO;
+import com.webcarros.exceptions.PersonVersionConflictException;
+import com.webcarros.mappers.PersonMapper;
 import com.webcarros.services.PersonService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,49 +46,210 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class PersonRestController {
 	
+	public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+	
+	public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+	
+	public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+	
+	/**
+	 * An async request timeout of zero or less never expires.
+	 */
+	private static final long NO_TIMEOUT = -1L;
+	
 	private final PersonService personService;
 	
-	private final ModelMapper modelMapper;
+	private final PersonMapper personMapper;
+	
+	private final ObjectMapper objectMapper;
+	
+	private final ThreadPoolTaskExecutor personExecutor;
+	
+	private final ThreadPoolTaskExecutor exportExecutor;
 	
 	@GetMapping
-	public List<PersonDTO> listPersons() {
-		return personService.listAll()
-				.stream()
-				.map(this::toDTO)
-				.collect(Collectors.toList());
+	public CompletableFuture<ResponseEntity<List<PersonDTO>>> listPersons(@RequestParam(required = false) final String after,
+			@RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) final int limit,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+		// the collection version lives in memory, so a 304 never leaves the request thread
+		final String eTag = eTag(personService.getDataVersion());
+		if (matches(ifNoneMatch, eTag)) {
+			return CompletableFuture.completedFuture(notModified(eTag));
+		}
+		
+		return this.async(() -> {
+			final Slice<PersonDTO> page = personService.listPage(after, limit);
+			final List<PersonDTO> body = page.getContent();
+			
+			final ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT);
+			if (page.hasNext()) {
+				response.header(NEXT_CURSOR_HEADER, body.get(body.size() - 1).getCpf());
+			}
+			return response.body(body);
+		});
+	}
+	
+	@GetMapping("/search")
+	public CompletableFuture<List<PersonDTO>> search(@RequestParam(required = false) final String name,
+			@RequestParam(required = false) final String email,
+			@RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) final int limit) {
+		return this.async(() -> personService.search(name, email, limit));
+	}
+	
+	/**
+	 * Stays on the request thread, it only reads the in-process search index.
+	 */
+	@GetMapping("/search/full-text")
+	public List<PersonDTO> fullTextSearch(@RequestParam final String q,
+			@RequestParam(defaultValue = "" + PersonService.DEFAULT_PAGE_SIZE) final int limit) {
+		return personService.fullTextSearch(q, limit);
+	}
+	
+	@PostMapping("/search/index")
+	public CompletableFuture<Long> rebuildSearchIndex() {
+		return this.async(personService::rebuildSearchIndex);
+	}
+	
+	/**
+	 * Runs on exportExecutor rather than personExecutor, and without
+	 * spring.mvc.async.request-timeout, which would cut a long export short.
+	 * When every export thread is busy, the export is answered with a 503.
+	 */
+	@GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+	public WebAsyncTask<Void> export(final HttpServletResponse response) {
+		final ObjectWriter writer = objectMapper.writerFor(PersonDTO.class)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		return new WebAsyncTask<>(NO_TIMEOUT, exportExecutor, () -> {
+			response.setContentType(APPLICATION_NDJSON_VALUE);
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+				generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+				generator.setRootValueSeparator(null);
+				personService.exportAll(person -> {
+					try {
+						writer.writeValue(generator, toDTO(person));
+						generator.writeRaw('\n');
+					} catch (final IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+			return null;
+		});
 	}
 	
 	@GetMapping("/{id}")
-	public PersonDTO findById(@PathVariable final String id) {
-		final Person person = personService.findByCPF(id);
-		return toDTO(person);
+	public CompletableFuture<ResponseEntity<PersonDTO>> findById(@PathVariable final String id,
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) {
+		return this.async(() -> {
+			final PersonDTO person = personService.findByCPF(id);
+			final String eTag = eTag(person.getVersion());
+			if (matches(ifNoneMatch, eTag)) {
+				return notModified(eTag);
+			}
+			return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(person);
+		});
 	}
 	
-	@PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+	@PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
 	@ResponseStatus(HttpStatus.CREATED)
-	public PersonDTO save(@RequestBody final PersonDTO dto) {
+	public CompletableFuture<PersonDTO> save(@RequestBody final PersonDTO dto) {
 		final Person person = this.toEntity(dto);
-		final Person ret = personService.save(person);
-		return this.toDTO(ret);
+		return this.async(() -> this.toDTO(personService.save(person)));
+	}
+	
+	@PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+	public CompletableFuture<List<PersonBatchResultDTO>> saveAll(@RequestBody final List<PersonDTO> dtos) {
+		final List<Person> persons = dtos.stream()
+				.map(this::toEntity)
+				.collect(Collectors.toList());
+		return this.async(() -> personService.saveAll(persons));
 	}
 	
 	@DeleteMapping("/{id}")
-	public void remove(@PathVariable final String id) {
-		personService.remove(id);
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public CompletableFuture<Void> remove(@PathVariable final String id) {
+		return CompletableFuture.runAsync(() -> personService.remove(id), personExecutor);
 	}
 	
-	@PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
-	public PersonDTO update(@PathVariable final String id, @RequestBody final PersonDTO dto) {
+	@DeleteMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	public CompletableFuture<Void> removeAll(@RequestBody final List<String> ids) {
+		return CompletableFuture.runAsync(() -> personService.removeAll(ids), personExecutor);
+	}
+	
+	@PutMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE})
+	public CompletableFuture<ResponseEntity<PersonDTO>> update(@PathVariable final String id, @RequestBody final PersonDTO dto,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) final String ifMatch) {
 		final Person person = this.toEntity(dto);
-		final Person update = personService.update(id, person);
-		return this.toDTO(update);
+		final Long expectedVersion = toVersion(id, ifMatch);
+		return this.async(() -> {
+			final Person update = personService.update(id, person, expectedVersion);
+			return ResponseEntity.ok().eTag(eTag(update.getVersion())).body(this.toDTO(update));
+		});
+	}
+	
+	/**
+	 * Runs {@code action} on the person executor. When the executor is saturated
+	 * the rejection is thrown right away and answered with a 503.
+	 */
+	private <T> CompletableFuture<T> async(final Supplier<T> action) {
+		return CompletableFuture.supplyAsync(action, personExecutor);
+	}
+	
+	/**
+	 * Weak comparison of an If-None-Match header, as RFC 7232 asks for GET.
+	 */
+	static boolean matches(final String ifNoneMatch, final String eTag) {
+		if (ifNoneMatch == null) {
+			return false;
+		}
+		for (final String candidate : ifNoneMatch.split(",")) {
+			final String tag = candidate.trim();
+			if (tag.equals("*") || tag.equals(eTag) || tag.equals("W/" + eTag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * The entity tag is the same for every format of the body, Vary keeps a
+	 * shared cache from answering a CBOR client with a cached JSON body.
+	 */
+	private static <T> ResponseEntity<T> notModified(final String eTag) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+	}
+	
+	static String eTag(final Object version) {
+		return "\"" + version + "\"";
+	}
+	
+	/**
+	 * @return the version required by an If-Match header, or null when there is
+	 *         no header or it is {@code *}
+	 * @throws PersonVersionConflictException when the header can never match,
+	 *         like a weak or malformed entity tag
+	 */
+	private static Long toVersion(final String id, final String ifMatch) {
+		if (ifMatch == null || ifMatch.trim().equals("*")) {
+			return null;
+		}
+		final String tag = ifMatch.trim();
+		if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+			try {
+				return Long.valueOf(tag.substring(1, tag.length() - 1));
+			} catch (final NumberFormatException e) {
+				// falls through to the conflict below
+			}
+		}
+		throw new PersonVersionConflictException(id);
 	}
 	
 	private Person toEntity(final PersonDTO dto) {
-		return modelMapper.map(dto, Person.class);
+		return personMapper.toEntity(dto);
 	}
 
 	private PersonDTO toDTO(final Person entity) {
-		return modelMapper.map(entity, PersonDTO.class);
+		return personMapper.toDTO(entity);
 	}
 }
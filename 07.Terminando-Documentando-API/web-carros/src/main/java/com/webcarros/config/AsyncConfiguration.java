@@ -0,0 +1,78 @@
+package com.webcarros.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class AsyncConfiguration implements WebMvcConfigurer {
+
+	public static final String PERSON_EXECUTOR = "personExecutor";
+
+	public static final String EXPORT_EXECUTOR = "exportExecutor";
+
+	@Value("${webcarros.executor.pool-size:10}")
+	private int poolSize;
+
+	@Value("${webcarros.executor.queue-capacity:100}")
+	private int queueCapacity;
+
+	@Value("${webcarros.executor.export-pool-size:2}")
+	private int exportPoolSize;
+
+	/**
+	 * Runs the database work of the API, so Tomcat threads are released as soon
+	 * as a request is handed over. Both the pool and the queue are bounded: once
+	 * they are full, tasks are rejected instead of piling up.
+	 */
+	@Bean(PERSON_EXECUTOR)
+	public ThreadPoolTaskExecutor personExecutor() {
+		final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(poolSize);
+		executor.setMaxPoolSize(poolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("person-");
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(30);
+		return executor;
+	}
+
+	/**
+	 * Runs the exports, which hold their thread for as long as the client takes
+	 * to read the whole table. They get a small pool of their own, without a
+	 * queue, so slow clients can only saturate it and never the person executor.
+	 */
+	@Bean(EXPORT_EXECUTOR)
+	public ThreadPoolTaskExecutor exportExecutor() {
+		final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(exportPoolSize);
+		executor.setMaxPoolSize(exportPoolSize);
+		executor.setQueueCapacity(0);
+		executor.setThreadNamePrefix("export-");
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(30);
+		return executor;
+	}
+
+	/**
+	 * With deferred repositories the EntityManagerFactory starts on the person
+	 * executor while the rest of the context starts. Boot only picks an executor
+	 * by itself when there is exactly one, and the scheduler is a second one.
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "spring.data.jpa.repositories.bootstrap-mode", havingValue = "deferred")
+	public EntityManagerFactoryBuilderCustomizer entityManagerFactoryBootstrapExecutor() {
+		return builder -> builder.setBootstrapExecutor(personExecutor());
+	}
+
+	@Override
+	public void configureAsyncSupport(final AsyncSupportConfigurer configurer) {
+		configurer.setTaskExecutor(personExecutor());
+	}
+
+}
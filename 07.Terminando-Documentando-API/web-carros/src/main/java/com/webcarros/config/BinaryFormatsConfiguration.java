@@ -0,0 +1,37 @@
+package com.webcarros.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * CBOR and Smile bodies for the clients that ask for them in the Accept or
+ * Content-Type headers. JSON stays the default, its converter comes before
+ * these two.
+ * <p>
+ * Spring MVC would register both formats by itself, but with a bare
+ * ObjectMapper. These ones are built from Spring Boot's builder, so they share
+ * the spring.jackson properties and the {@code @JsonComponent}s, like
+ * PersonDTOSerializer, with the JSON one.
+ */
+@Configuration
+public class BinaryFormatsConfiguration {
+
+	/**
+	 * The builder is a prototype bean, every injection point gets its own.
+	 */
+	@Bean
+	public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(final Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+	}
+
+	@Bean
+	public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(final Jackson2ObjectMapperBuilder builder) {
+		return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+	}
+}
@@ -0,0 +1,141 @@
+package com.webcarros.config;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+
+import com.webcarros.storage.PersonStorageWarmer;
+
+@Configuration
+public class MetricsConfiguration {
+
+	static final String WARM_UP_TAG = "warmup";
+
+	/**
+	 * Times the methods annotated with {@code @Timed} outside of Spring MVC, like
+	 * the ones of PersonService.
+	 */
+	@Bean
+	public TimedAspect timedAspect(final MeterRegistry registry) {
+		return new TimedAspect(registry);
+	}
+
+	/**
+	 * Pool size, active threads, queued and completed tasks of the executor the
+	 * API hands its database work to.
+	 */
+	@Bean
+	public MeterBinder personExecutorMetrics(@Qualifier(AsyncConfiguration.PERSON_EXECUTOR) final ThreadPoolTaskExecutor personExecutor) {
+		return new ExecutorServiceMetrics(personExecutor.getThreadPoolExecutor(), AsyncConfiguration.PERSON_EXECUTOR, Tags.empty());
+	}
+
+	@Bean
+	public MeterBinder exportExecutorMetrics(@Qualifier(AsyncConfiguration.EXPORT_EXECUTOR) final ThreadPoolTaskExecutor exportExecutor) {
+		return new ExecutorServiceMetrics(exportExecutor.getThreadPoolExecutor(), AsyncConfiguration.EXPORT_EXECUTOR, Tags.empty());
+	}
+
+	/**
+	 * Tags the requests replayed by {@link PersonStorageWarmer}. The header only
+	 * counts when the request comes from the node itself.
+	 */
+	@Bean
+	public WebMvcTagsContributor warmUpRequestTag() {
+		return new WebMvcTagsContributor() {
+
+			@Override
+			public Iterable<Tag> getTags(final HttpServletRequest request, final HttpServletResponse response,
+					final Object handler, final Throwable exception) {
+				return isWarmUp(request) ? Tags.of(WARM_UP_TAG, "true") : Tags.empty();
+			}
+
+			@Override
+			public Iterable<Tag> getLongRequestTags(final HttpServletRequest request, final Object handler) {
+				return Tags.empty();
+			}
+		};
+	}
+
+	/**
+	 * Drops the tagged warm-up requests before they reach any registry, so the
+	 * request latencies only show client traffic.
+	 */
+	@Bean
+	public MeterFilter warmUpRequestFilter() {
+		return MeterFilter.deny(id -> id.getTag(WARM_UP_TAG) != null);
+	}
+
+	private static boolean isWarmUp(final HttpServletRequest request) {
+		if (request.getHeader(PersonStorageWarmer.WARM_UP_HEADER) == null) {
+			return false;
+		}
+		try {
+			return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+		} catch (final UnknownHostException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Hits, misses and puts of every second-level cache region, which the
+	 * Hibernate metrics of Spring Boot only report summed up.
+	 */
+	@Bean
+	public MeterBinder secondLevelCacheRegionMetrics(final EntityManagerFactory entityManagerFactory) {
+		final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		return registry -> {
+			for (final String region : statistics.getSecondLevelCacheRegionNames()) {
+				bindRegion(registry, statistics, region, s -> s.getCacheRegionStatistics(region));
+			}
+			// query regions are not listed with the others
+			bindRegion(registry, statistics, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+					s -> s.getQueryRegionStatistics(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME));
+		};
+	}
+
+	/**
+	 * The region statistics are looked up on every read, since clearing the
+	 * Hibernate statistics replaces them.
+	 */
+	private static void bindRegion(final MeterRegistry registry, final Statistics statistics, final String region,
+			final Function<Statistics, CacheRegionStatistics> lookup) {
+		final ToDoubleFunction<Statistics> hits = s -> count(lookup.apply(s), CacheRegionStatistics::getHitCount);
+		final ToDoubleFunction<Statistics> misses = s -> count(lookup.apply(s), CacheRegionStatistics::getMissCount);
+		final ToDoubleFunction<Statistics> puts = s -> count(lookup.apply(s), CacheRegionStatistics::getPutCount);
+		FunctionCounter.builder("hibernate.cache.region.requests", statistics, hits)
+				.tags("region", region, "result", "hit").register(registry);
+		FunctionCounter.builder("hibernate.cache.region.requests", statistics, misses)
+				.tags("region", region, "result", "miss").register(registry);
+		FunctionCounter.builder("hibernate.cache.region.puts", statistics, puts)
+				.tags("region", region).register(registry);
+	}
+
+	private static long count(final CacheRegionStatistics regionStatistics, final ToLongFunction<CacheRegionStatistics> count) {
+		return regionStatistics == null ? 0 : count.applyAsLong(regionStatistics);
+	}
+
+}
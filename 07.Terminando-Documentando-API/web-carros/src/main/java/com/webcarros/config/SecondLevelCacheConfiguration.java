@@ -0,0 +1,65 @@
+package com.webcarros.config;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Regions of the Hibernate second-level cache, kept on the heap by Ehcache
+ * behind the JCache API, so no cache server is needed.
+ * <p>
+ * Only the query cache is used. Person has no entity region: the lookups by
+ * CPF are projections kept in the Spring {@code persons} cache, and a second
+ * copy of each person in Hibernate would never be read.
+ */
+@Configuration
+public class SecondLevelCacheConfiguration {
+
+	@Value("${webcarros.cache.query.heap-entries:1000}")
+	private long queryHeapEntries;
+
+	@Value("${webcarros.cache.query.time-to-live:10m}")
+	private Duration queryTimeToLive;
+
+	/**
+	 * Every context gets a cache manager of its own, since JCache hands the same
+	 * manager out for the same URI.
+	 */
+	@Bean(destroyMethod = "close")
+	public CacheManager hibernateCacheManager() {
+		final EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+		return provider.getCacheManager(URI.create("urn:webcarros:hibernate:" + UUID.randomUUID()),
+				ConfigurationBuilder.newConfigurationBuilder()
+						.withCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(queryHeapEntries, queryTimeToLive))
+						// must outlive every cached query, or stale results could be taken as fresh
+						.withCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, region(1000, null))
+						.build());
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer hibernateCacheCustomizer(final CacheManager hibernateCacheManager) {
+		return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+	}
+
+	private static CacheConfiguration<Object, Object> region(final long heapEntries, final Duration timeToLive) {
+		return CacheConfigurationBuilder.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(heapEntries))
+				.withExpiry(timeToLive == null ? ExpiryPolicyBuilder.noExpiration() : ExpiryPolicyBuilder.timeToLiveExpiration(timeToLive))
+				.build();
+	}
+}
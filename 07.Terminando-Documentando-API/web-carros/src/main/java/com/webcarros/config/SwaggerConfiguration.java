@@ -1,19 +1,49 @@
 package com.webcarros.config;
 
+import java.util.Comparator;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import com.fasterxml.classmate.TypeResolver;
 
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
+import springfox.documentation.schema.AlternateTypeRules;
+import springfox.documentation.service.ApiDescription;
+import springfox.documentation.service.Operation;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
 
+/**
+ * Springfox only runs with the {@value #DOCS_PROFILE} profile, where it scans
+ * the controllers and serves the swagger UI. Every other profile serves the
+ * spec generated from it at build time, {@code /openapi.json}, see
+ * OpenApiSpecTest.
+ */
 @Configuration
+@Profile(SwaggerConfiguration.DOCS_PROFILE)
 public class SwaggerConfiguration {
 
+	public static final String DOCS_PROFILE = "docs";
+
+	/**
+	 * The operations are sorted so the spec is the same on every run. Two
+	 * handlers can not share a path and method, springfox would merge them into
+	 * one operation and document only one of them. The export's WebAsyncTask
+	 * writes NDJSON lines, it is documented as a string rather than as the task.
+	 */
 	@Bean
 	public Docket api() {
 		return new Docket(DocumentationType.SWAGGER_2)
+				.apiDescriptionOrdering(Comparator.comparing(ApiDescription::getPath)
+						.thenComparing(ApiDescription::getDescription, Comparator.nullsFirst(Comparator.naturalOrder())))
+				.operationOrdering(Comparator.comparing((final Operation operation) -> operation.getMethod().name())
+						.thenComparing(Operation::getUniqueId))
+				.alternateTypeRules(AlternateTypeRules.newRule(
+						new TypeResolver().resolve(WebAsyncTask.class, Void.class), String.class))
 				.select()
 				.apis(RequestHandlerSelectors.basePackage("com.webcarros"))
 				.paths(PathSelectors.ant("/**"))
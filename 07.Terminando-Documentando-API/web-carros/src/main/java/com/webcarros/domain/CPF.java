@@ -0,0 +1,80 @@
+package com.webcarros.domain;
+
+import com.webcarros.exceptions.CPFBadFormatedException;
+
+/**
+ * Normalizes and validates CPF numbers in a single pass over the input.
+ * Digits are kept, dots and dashes are skipped and anything else is rejected.
+ * The two check digits are verified along the way, so no regular expression
+ * or intermediate string is needed.
+ */
+public final class CPF {
+	
+	public static final int LENGTH = 11;
+	
+	private CPF() {
+	}
+	
+	/**
+	 * @return the eleven digits of {@code cpf}, or {@code cpf} itself when it
+	 *         already has no punctuation
+	 * @throws CPFBadFormatedException when {@code cpf} is not a valid CPF
+	 */
+	public static String normalize(final String cpf) {
+		if (cpf == null) {
+			throw new CPFBadFormatedException(cpf);
+		}
+		
+		char[] digits = null;
+		int count = 0;
+		int firstSum = 0;
+		int secondSum = 0;
+		int firstCheck = 0;
+		char firstDigit = 0;
+		boolean repeated = true;
+		
+		for (int i = 0; i < cpf.length(); i++) {
+			final char c = cpf.charAt(i);
+			if (c >= '0' && c <= '9') {
+				if (count == LENGTH) {
+					throw new CPFBadFormatedException(cpf);
+				}
+				final int digit = c - '0';
+				if (count < 9) {
+					firstSum += digit * (10 - count);
+					secondSum += digit * (11 - count);
+				} else if (count == 9) {
+					firstCheck = digit;
+					secondSum += digit * 2;
+				} else if (checkDigit(firstSum) != firstCheck || checkDigit(secondSum) != digit) {
+					throw new CPFBadFormatedException(cpf);
+				}
+				if (count == 0) {
+					firstDigit = c;
+				}
+				repeated &= c == firstDigit;
+				if (digits != null) {
+					digits[count] = c;
+				}
+				count++;
+			} else if (c == '.' || c == '-') {
+				if (digits == null) {
+					digits = new char[LENGTH];
+					cpf.getChars(0, count, digits, 0);
+				}
+			} else {
+				throw new CPFBadFormatedException(cpf);
+			}
+		}
+		
+		if (count != LENGTH || repeated) {
+			throw new CPFBadFormatedException(cpf);
+		}
+		return digits == null ? cpf : new String(digits);
+	}
+	
+	private static int checkDigit(final int sum) {
+		final int rest = sum % LENGTH;
+		return rest < 2 ? 0 : LENGTH - rest;
+	}
+}
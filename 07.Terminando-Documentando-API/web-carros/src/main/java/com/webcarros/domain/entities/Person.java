@@ -4,17 +4,25 @@ import java.time.LocalDate;
 
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Version;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotNull;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+		@Index(name = "idx_person_name", columnList = "name"),
+		@Index(name = "idx_person_email", columnList = "email")
+})
 public class Person {
 	
 	@Id
@@ -28,5 +36,13 @@ public class Person {
 	private String email;	
 	
 	private LocalDate birthDate;
+	
+	@Version
+	@EqualsAndHashCode.Exclude
+	private Long version;
+	
+	public Person(final String cpf, final String name, final String email, final LocalDate birthDate) {
+		this(cpf, name, email, birthDate, null);
+	}
 
 }
@@ -0,0 +1,19 @@
+package com.webcarros.domain.repositories;
+
+import java.util.List;
+
+import com.webcarros.domain.entities.Person;
+
+public interface PersonBatchRepository {
+	
+	/**
+	 * Inserts all {@code persons} with one JDBC batch, bypassing the persistence
+	 * context. Like save(), a person never replaces another one: when the CPF is
+	 * already taken, by the table or by a person earlier in the list, the row is
+	 * left as it is. The persons must already be valid, normalized and have the
+	 * version they are inserted with.
+	 * 
+	 * @return whether each person was inserted, in the same order
+	 */
+	boolean[] insertAll(List<Person> persons);
+}
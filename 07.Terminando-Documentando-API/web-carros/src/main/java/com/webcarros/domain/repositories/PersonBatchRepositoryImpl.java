@@ -0,0 +1,67 @@
+package com.webcarros.domain.repositories;
+
+import java.sql.Date;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webcarros.domain.entities.Person;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+class PersonBatchRepositoryImpl implements PersonBatchRepository {
+	
+	private static final String INSERT = "MERGE INTO person t "
+			+ "USING (SELECT CAST(? AS VARCHAR) cpf, CAST(? AS VARCHAR) name, CAST(? AS VARCHAR) email, CAST(? AS DATE) birth_date, CAST(? AS BIGINT) version) s "
+			+ "ON t.cpf = s.cpf "
+			+ "WHEN NOT MATCHED THEN INSERT (cpf, name, email, birth_date, version) VALUES (s.cpf, s.name, s.email, s.birth_date, s.version)";
+	
+	private final JdbcTemplate jdbcTemplate;
+	
+	private final EntityManagerFactory entityManagerFactory;
+	
+	@Override
+	public boolean[] insertAll(final List<Person> persons) {
+		final int[][] counts = jdbcTemplate.batchUpdate(INSERT, persons, persons.size(), (ps, person) -> {
+			ps.setString(1, person.getCpf());
+			ps.setString(2, person.getName());
+			ps.setString(3, person.getEmail());
+			ps.setDate(4, person.getBirthDate() == null ? null : Date.valueOf(person.getBirthDate()));
+			ps.setLong(5, person.getVersion());
+		});
+		
+		this.evictQueries();
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			// a reader may cache the old rows again before the commit
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(final int status) {
+					evictQueries();
+				}
+			});
+		}
+		
+		final boolean[] inserted = new boolean[persons.size()];
+		int i = 0;
+		for (final int[] batch : counts) {
+			for (final int count : batch) {
+				inserted[i++] = count != 0;
+			}
+		}
+		return inserted;
+	}
+	
+	/**
+	 * The batch goes straight to JDBC, so Hibernate never learns about it. Every
+	 * cached query is dropped by hand.
+	 */
+	private void evictQueries() {
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+	}
+}
@@ -1,8 +1,106 @@
 package com.webcarros.domain.repositories;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonDTO;
+
+@CacheConfig(cacheNames = PersonRepository.CACHE_NAME)
+public interface PersonRepository extends JpaRepository<Person, String>, PersonBatchRepository {
+
+	String CACHE_NAME = "persons";
+
+	@Override
+	@CacheEvict(key = "#p0.cpf")
+	<S extends Person> S save(S person);
+
+	/**
+	 * Deletes the person with a single DELETE statement, without loading it first.
+	 * 
+	 * @return the number of deleted rows, 0 when there is no person with this CPF
+	 */
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@CacheEvict(key = "#p0")
+	@Query("delete from Person p where p.cpf = :cpf")
+	int deleteByCpf(String cpf);
+
+	/**
+	 * Deletes the persons with a single DELETE statement. It leaves the persons
+	 * cache alone: until the transaction commits, a read can still see the rows
+	 * and cache them again, so the caller clears the cache after the commit.
+	 */
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@Query("delete from Person p where p.cpf in :cpfs")
+	int deleteByCpfIn(Collection<String> cpfs);
+
+	/**
+	 * Updates the person's details and sets its version to {@code newVersion}
+	 * with a single UPDATE statement, without loading the entity first. When
+	 * {@code version} is not null, the row is only updated if it still has that
+	 * version. A row that already has a later version than {@code newVersion}
+	 * is never updated.
+	 * 
+	 * @return the number of updated rows, 0 when there is no person with this
+	 *         CPF or it has another version
+	 */
+	@Transactional
+	@Modifying(clearAutomatically = true)
+	@CacheEvict(key = "#p0")
+	@Query("update Person p set p.name = :name, p.email = :email, p.birthDate = :birthDate, p.version = :newVersion "
+			+ "where p.cpf = :cpf and p.version < :newVersion and (:version is null or p.version = :version)")
+	int updateDetails(String cpf, String name, String email, LocalDate birthDate, Long version, long newVersion);
+
+	/**
+	 * Looks the person up as a DTO built straight from the selected columns, so
+	 * no entity is hydrated or kept in the persistence context.
+	 */
+	@Cacheable(unless = "#result == null")
+	@Query("select new com.webcarros.dto.PersonDTO(p.cpf, p.name, p.email, p.birthDate, p.version) "
+			+ "from Person p where p.cpf = :cpf")
+	Optional<PersonDTO> findDTOByCpf(String cpf);
+
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	@Query("select new com.webcarros.dto.PersonDTO(p.cpf, p.name, p.email, p.birthDate, p.version) "
+			+ "from Person p where p.cpf > :cpf")
+	Slice<PersonDTO> findByCpfGreaterThan(String cpf, Pageable pageable);
+
+	/**
+	 * Searches by a LIKE pattern on the indexed name column, optionally narrowed
+	 * by an email pattern. Both patterns use {@code \} as escape character.
+	 */
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	@Query("select new com.webcarros.dto.PersonDTO(p.cpf, p.name, p.email, p.birthDate, p.version) "
+			+ "from Person p where p.name like :name escape '\\' "
+			+ "and (:email is null or p.email like :email escape '\\')")
+	Slice<PersonDTO> searchByName(String name, String email, Pageable pageable);
+
+	/**
+	 * Searches by a LIKE pattern on the indexed email column, using {@code \}
+	 * as escape character.
+	 */
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"))
+	@Query("select new com.webcarros.dto.PersonDTO(p.cpf, p.name, p.email, p.birthDate, p.version) "
+			+ "from Person p where p.email like :email escape '\\'")
+	Slice<PersonDTO> searchByEmail(String email, Pageable pageable);
 
-public interface PersonRepository extends JpaRepository<Person, String> {
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+	Stream<Person> streamAllBy();
 }
@@ -2,6 +2,8 @@ package com.webcarros.dto;
 
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,4 +20,14 @@ public class PersonDTO {
 	private String email;	
 	
 	private LocalDate birthDate;
+	
+	/**
+	 * Only used to build the entity tag, it is not part of the JSON body.
+	 */
+	@JsonIgnore
+	private Long version;
+	
+	public PersonDTO(final String cpf, final String name, final String email, final LocalDate birthDate) {
+		this(cpf, name, email, birthDate, null);
+	}
 }
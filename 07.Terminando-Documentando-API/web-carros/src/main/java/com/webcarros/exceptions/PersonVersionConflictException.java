@@ -0,0 +1,9 @@
+package com.webcarros.exceptions;
+
+public class PersonVersionConflictException extends RuntimeException {
+	public PersonVersionConflictException(final String personCPF) {
+		super("PESSOA ALTERADA POR OUTRA REQUISIÇÃO " + personCPF);
+	}
+
+	private static final long serialVersionUID = 7785431306429871346L;
+}
@@ -0,0 +1,22 @@
+package com.webcarros.mappers;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonDTO;
+
+/**
+ * Mapping between {@link Person} and {@link PersonDTO}. The implementation is
+ * generated by MapStruct at compile time, and any property left unmapped fails
+ * the build.
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface PersonMapper {
+	
+	PersonDTO toDTO(Person entity);
+	
+	@Mapping(target = "version", ignore = true)
+	Person toEntity(PersonDTO dto);
+}
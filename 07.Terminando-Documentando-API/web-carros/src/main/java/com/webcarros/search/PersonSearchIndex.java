@@ -0,0 +1,367 @@
+package com.webcarros.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexWriterConfig.OpenMode;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonDTO;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Full-text index of person names and emails, kept by Lucene in
+ * {@code webcarros.search.index-dir}. Every field of the DTO is stored in the
+ * index, so searches never read the database.
+ * <p>
+ * Writes become visible to searches on the next {@link #refresh()} and durable
+ * on the next {@link #commit()}. A write that fails is logged and skipped, a
+ * {@link #rebuild(Consumer)} brings the index back in line with the table.
+ * <p>
+ * Writes may reach the index in another order than they reached the table, so
+ * each one carries the version it was made at and is skipped when the index
+ * already holds a later one for the same person. A delete leaves its version
+ * behind, so an older write can never add the person again.
+ */
+@Slf4j
+@Component
+public class PersonSearchIndex {
+
+	static final String CPF = "cpf";
+
+	static final String NAME = "name";
+
+	static final String EMAIL = "email";
+
+	static final String BIRTH_DATE = "birthDate";
+
+	static final String VERSION = "version";
+
+	/**
+	 * The rebuild that last wrote each document, only indexed.
+	 */
+	static final String GENERATION = "generation";
+
+	/**
+	 * Caps the number of query terms, each of them expands to a few clauses.
+	 */
+	private static final int MAX_QUERY_TERMS = 16;
+
+	private final Analyzer analyzer = new PersonAnalyzer();
+
+	private final Directory directory;
+
+	private final IndexWriter writer;
+
+	private final SearcherManager searcherManager;
+
+	/**
+	 * Seeded from the clock, so a rebuild never reuses the generation of the
+	 * documents a previous run left on disk.
+	 */
+	private final AtomicLong generations = new AtomicLong(System.currentTimeMillis());
+
+	private final Object rebuildLock = new Object();
+
+	/**
+	 * Guards the two fields below, and makes the check of {@link #versions} and
+	 * the write that follows it atomic.
+	 */
+	private final Object writeLock = new Object();
+
+	private String generation = Long.toString(generations.get());
+
+	/**
+	 * The version of the last write of each person since the start, deletes
+	 * included.
+	 */
+	private final Map<String, Long> versions = new HashMap<>();
+
+	public PersonSearchIndex(@Value("${webcarros.search.index-dir}") final Path indexDir) throws IOException {
+		this.directory = FSDirectory.open(Files.createDirectories(indexDir));
+		this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(OpenMode.CREATE_OR_APPEND));
+		this.searcherManager = new SearcherManager(writer, null);
+	}
+
+	/**
+	 * Finds the persons best matching every word of {@code text} in their name or
+	 * email. Exact words rank first, then prefixes, then words with typos.
+	 */
+	public List<PersonDTO> search(final String text, final int limit) {
+		try {
+			final Query query = this.parse(text);
+			if (query == null) {
+				return List.of();
+			}
+
+			final IndexSearcher searcher = searcherManager.acquire();
+			try {
+				final ScoreDoc[] hits = searcher.search(query, limit).scoreDocs;
+				final List<PersonDTO> ret = new ArrayList<>(hits.length);
+				for (final ScoreDoc hit : hits) {
+					ret.add(toDTO(searcher.doc(hit.doc)));
+				}
+				return ret;
+			} finally {
+				searcherManager.release(searcher);
+			}
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Indexes the person, unless the index already holds a later version of it.
+	 */
+	public void index(final Person person) {
+		try {
+			synchronized (writeLock) {
+				this.write(person, generation);
+			}
+		} catch (final IOException e) {
+			log.warn("Could not index person {}", person.getCpf(), e);
+		}
+	}
+
+	public void indexAll(final Collection<Person> persons) {
+		persons.forEach(this::index);
+	}
+
+	public void delete(final String cpf, final long version) {
+		this.deleteAll(List.of(cpf), version);
+	}
+
+	/**
+	 * Removes the persons, unless the index already holds a later version of
+	 * them. {@code version} must be later than every write made to these persons
+	 * before they were deleted.
+	 */
+	public void deleteAll(final Collection<String> cpfs, final long version) {
+		try {
+			synchronized (writeLock) {
+				final List<Term> terms = new ArrayList<>(cpfs.size());
+				for (final String cpf : cpfs) {
+					if (this.advance(cpf, version)) {
+						terms.add(new Term(CPF, cpf));
+					}
+				}
+				writer.deleteDocuments(terms.toArray(new Term[0]));
+			}
+		} catch (final IOException e) {
+			log.warn("Could not remove {} persons from the search index", cpfs.size(), e);
+		}
+	}
+
+	/**
+	 * Must hold {@link #writeLock}.
+	 */
+	private void write(final Person person, final String generation) throws IOException {
+		if (this.advance(person.getCpf(), person.getVersion())) {
+			writer.updateDocument(new Term(CPF, person.getCpf()), toDocument(person, generation));
+		}
+	}
+
+	/**
+	 * Records {@code version} as the last write of the person, unless a later
+	 * one is already there. The same version is accepted again, so a rebuild can
+	 * rewrite a document under its own generation. Must hold {@link #writeLock}.
+	 * 
+	 * @return whether the write should be made
+	 */
+	private boolean advance(final String cpf, final long version) {
+		final Long last = versions.get(cpf);
+		if (last != null && last > version) {
+			return false;
+		}
+		versions.put(cpf, version);
+		return true;
+	}
+
+	/**
+	 * Brings the index in line with the persons handed by {@code source}, which
+	 * replace their documents one by one and under a new generation. Documents
+	 * of older generations, persons no longer in the source, are deleted at the
+	 * end. Searches see every person all along, either its old document or its
+	 * new one.
+	 * <p>
+	 * A person indexed or deleted while the rebuild runs may come from the
+	 * source as it was before. Its version is then older than the one in the
+	 * index, so the source's copy of it is skipped.
+	 *
+	 * @return the number of persons handed by the source
+	 */
+	public long rebuild(final Consumer<Consumer<Person>> source) {
+		synchronized (rebuildLock) {
+			final String rebuildGeneration = Long.toString(generations.incrementAndGet());
+			synchronized (writeLock) {
+				generation = rebuildGeneration;
+			}
+			try {
+				final long[] count = {0};
+				source.accept(person -> {
+					try {
+						synchronized (writeLock) {
+							this.write(person, rebuildGeneration);
+						}
+						count[0]++;
+					} catch (final IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				writer.deleteDocuments(new BooleanQuery.Builder()
+						.add(new MatchAllDocsQuery(), Occur.MUST)
+						.add(new TermQuery(new Term(GENERATION, rebuildGeneration)), Occur.MUST_NOT)
+						.build());
+				writer.commit();
+				searcherManager.maybeRefreshBlocking();
+				return count[0];
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${webcarros.search.refresh-interval-ms:1000}")
+	public void refresh() throws IOException {
+		searcherManager.maybeRefresh();
+	}
+
+	@Scheduled(fixedDelayString = "${webcarros.search.commit-interval-ms:30000}")
+	public void commit() throws IOException {
+		if (writer.hasUncommittedChanges()) {
+			writer.commit();
+		}
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		searcherManager.close();
+		writer.close();
+		directory.close();
+		analyzer.close();
+	}
+
+	private Query parse(final String text) throws IOException {
+		final BooleanQuery.Builder query = new BooleanQuery.Builder();
+		int terms = 0;
+		try (TokenStream tokens = analyzer.tokenStream(NAME, text)) {
+			final CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+			tokens.reset();
+			while (terms < MAX_QUERY_TERMS && tokens.incrementToken()) {
+				query.add(termQuery(term.toString()), Occur.MUST);
+				terms++;
+			}
+			tokens.end();
+		}
+		return terms == 0 ? null : query.build();
+	}
+
+	/**
+	 * Typos are only looked for in names, and never in the first letter, since
+	 * every fuzzy clause builds its own automaton and scans the terms it accepts.
+	 */
+	private static Query termQuery(final String text) {
+		final BooleanQuery.Builder query = new BooleanQuery.Builder();
+		for (final String field : List.of(NAME, EMAIL)) {
+			final Term term = new Term(field, text);
+			query.add(new BoostQuery(new TermQuery(term), 4f), Occur.SHOULD);
+			query.add(new BoostQuery(new PrefixQuery(term), 2f), Occur.SHOULD);
+		}
+		query.add(new FuzzyQuery(new Term(NAME, text), maxEdits(text), 1), Occur.SHOULD);
+		return query.build();
+	}
+
+	/**
+	 * @return how many typos a word of this length may have, short words must
+	 *         match exactly
+	 */
+	private static int maxEdits(final String text) {
+		if (text.length() < 3) {
+			return 0;
+		}
+		return text.length() < 6 ? 1 : 2;
+	}
+
+	private static Document toDocument(final Person person, final String generation) {
+		final Document document = new Document();
+		document.add(new StringField(CPF, person.getCpf(), Field.Store.YES));
+		document.add(new StringField(GENERATION, generation, Field.Store.NO));
+		document.add(new TextField(NAME, person.getName(), Field.Store.YES));
+		document.add(new TextField(EMAIL, person.getEmail(), Field.Store.YES));
+		if (person.getBirthDate() != null) {
+			document.add(new StoredField(BIRTH_DATE, person.getBirthDate().toString()));
+		}
+		document.add(new StoredField(VERSION, person.getVersion()));
+		return document;
+	}
+
+	private static PersonDTO toDTO(final Document document) {
+		final String birthDate = document.get(BIRTH_DATE);
+		final Number version = document.getField(VERSION) == null ? null : document.getField(VERSION).numericValue();
+		return new PersonDTO(document.get(CPF), document.get(NAME), document.get(EMAIL),
+				birthDate == null ? null : LocalDate.parse(birthDate),
+				version == null ? null : version.longValue());
+	}
+
+	/**
+	 * Splits on word boundaries, then lower cases and strips accents, so "José"
+	 * matches "JOSE".
+	 */
+	private static final class PersonAnalyzer extends Analyzer {
+
+		@Override
+		protected TokenStreamComponents createComponents(final String fieldName) {
+			final Tokenizer tokenizer = new StandardTokenizer();
+			return new TokenStreamComponents(tokenizer, new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer)));
+		}
+
+		@Override
+		protected TokenStream normalize(final String fieldName, final TokenStream in) {
+			return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+		}
+	}
+}
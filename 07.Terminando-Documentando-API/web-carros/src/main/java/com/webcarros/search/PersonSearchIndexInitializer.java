@@ -0,0 +1,30 @@
+package com.webcarros.search;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.webcarros.services.PersonService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rebuilds the search index from the table on startup, since the index on disk
+ * may be out of date with the database.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "webcarros.search.rebuild-on-startup", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class PersonSearchIndexInitializer implements ApplicationRunner {
+
+	private final PersonService personService;
+
+	@Override
+	public void run(final ApplicationArguments args) {
+		final long count = personService.rebuildSearchIndex();
+		log.info("Search index rebuilt with {} persons", count);
+	}
+}
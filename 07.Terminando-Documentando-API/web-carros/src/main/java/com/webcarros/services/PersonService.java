@@ -1,62 +1,382 @@
 package com.webcarros.services;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.webcarros.domain.CPF;
 import com.webcarros.domain.entities.Person;
 import com.webcarros.domain.repositories.PersonRepository;
+import com.webcarros.dto.PersonBatchResultDTO;
+import com.webcarros.dto.PersonDTO;
+import com.webcarros.dto.PersonBatchResultDTO.Status;
 import com.webcarros.exceptions.CPFBadFormatedException;
+import com.webcarros.exceptions.InvalidSearchException;
+import com.webcarros.exceptions.PersonAlreadyExistsException;
 import com.webcarros.exceptions.PersonNotFoundException;
+import com.webcarros.exceptions.PersonVersionConflictException;
+import com.webcarros.search.PersonSearchIndex;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class PersonService {
 	
+	public static final String TIMER_NAME = "person.service";
+	
+	public static final int DEFAULT_PAGE_SIZE = 50;
+
+	public static final int MAX_PAGE_SIZE = 500;
+	
+	public static final int BATCH_CHUNK_SIZE = 500;
+	
+	public static final int DELETE_CHUNK_SIZE = 1000;
+
 	private final PersonRepository personRepository;
+	
+	private final EntityManager entityManager;
+	
+	private final Validator validator;
+	
+	private final TransactionTemplate transactionTemplate;
+	
+	private final PersonSearchIndex personSearchIndex;
+	
+	private final CacheManager cacheManager;
+	
+	/**
+	 * Moves forward after every write, so it identifies the current state of the
+	 * whole collection. It is seeded from the clock to keep moving forward across
+	 * restarts.
+	 */
+	private final AtomicLong dataVersion = new AtomicLong(System.currentTimeMillis());
+	
+	/**
+	 * Last version given to a written person. It is seeded from the clock in
+	 * microseconds and only moves forward, so a version, and the ETag made from
+	 * it, never stands for two states of a person, not even after the person is
+	 * deleted and created again.
+	 */
+	private final AtomicLong personVersion = new AtomicLong();
+	
+	public long getDataVersion() {
+		return dataVersion.get();
+	}
+	
+	private long nextPersonVersion() {
+		final long now = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+		return personVersion.updateAndGet(last -> Math.max(last + 1, now));
+	}
 
-	public List<Person> listAll() {
-		return personRepository.findAll();
+	/**
+	 * Lists persons ordered by CPF, starting right after the {@code after} cursor.
+	 * The page size is capped at {@link #MAX_PAGE_SIZE} so a single request never
+	 * loads more than that many rows, whatever the size of the table.
+	 */
+	@Timed(value = TIMER_NAME, histogram = true)
+	public Slice<PersonDTO> listPage(final String after, final int limit) {
+		final String cursor = after == null ? "" : CPF.normalize(after);
+		return personRepository.findByCpfGreaterThan(cursor, PageRequest.of(0, pageSize(limit), Sort.by("cpf")));
+	}
+	
+	/**
+	 * Finds persons whose name and/or email start with the given prefixes,
+	 * returning at most {@link #MAX_PAGE_SIZE} of them. The search always runs on
+	 * the name index when a name is given, and on the email index otherwise.
+	 * 
+	 * @throws InvalidSearchException when neither prefix is given
+	 */
+	@Timed(value = TIMER_NAME, histogram = true)
+	public List<PersonDTO> search(final String name, final String email, final int limit) {
+		final boolean byName = name != null && !name.isEmpty();
+		final boolean byEmail = email != null && !email.isEmpty();
+		if (!byName && !byEmail) {
+			throw new InvalidSearchException();
+		}
+		
+		final String emailPattern = byEmail ? prefixPattern(email) : null;
+		if (byName) {
+			return personRepository.searchByName(prefixPattern(name), emailPattern,
+					PageRequest.of(0, pageSize(limit), Sort.by("name", "cpf"))).getContent();
+		}
+		return personRepository.searchByEmail(emailPattern,
+				PageRequest.of(0, pageSize(limit), Sort.by("email", "cpf"))).getContent();
+	}
+	
+	private static int pageSize(final int limit) {
+		return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+	}
+	
+	/**
+	 * @return a LIKE pattern matching values starting with {@code prefix}, with
+	 *         its wildcards escaped by {@code \}
+	 */
+	private static String prefixPattern(final String prefix) {
+		return prefix.replace("\\", "\\\\")
+				.replace("%", "\\%")
+				.replace("_", "\\_") + "%";
 	}
 
+	/**
+	 * Streams every person through {@code action} from a database cursor. Each
+	 * entity is detached once handled, so the persistence context stays empty
+	 * however many rows are exported.
+	 */
+	@Timed(value = TIMER_NAME, histogram = true)
+	@Transactional(readOnly = true)
+	public void exportAll(final Consumer<Person> action) {
+		try (Stream<Person> persons = personRepository.streamAllBy()) {
+			persons.forEach(p -> {
+				action.accept(p);
+				entityManager.detach(p);
+			});
+		}
+	}
+
+	/**
+	 * Inserts the person as a batch of one, so it gets its version from
+	 * {@link #nextPersonVersion()} like every other write.
+	 */
+	@Timed(value = TIMER_NAME, histogram = true)
 	public Person save(final Person person) {
 		
-		final String cpf = this.removeDotsAndTraces(person.getCpf());
+		final String cpf = CPF.normalize(person.getCpf());
+		person.setCpf(cpf);
+		this.checkConstraints(person);
+		person.setVersion(this.nextPersonVersion());
 		
-		if (!cpf.matches("^[0-9]{11}$")) {
-			throw new CPFBadFormatedException(person.getCpf());
+		try {
+			if (!personRepository.insertAll(List.of(person))[0]) {
+				throw new PersonAlreadyExistsException(cpf);
+			}
+			personSearchIndex.index(person);
+			return person;
+		} finally {
+			dataVersion.incrementAndGet();
 		}
+	}
+
+	/**
+	 * Validates every person and inserts the valid ones in JDBC batches of
+	 * {@link #BATCH_CHUNK_SIZE}, each chunk in its own transaction. An invalid
+	 * person, a CPF already taken or a failed chunk does not stop the remaining
+	 * ones.
+	 * 
+	 * @return one result per person, in the same order
+	 */
+	@Timed(value = TIMER_NAME, histogram = true)
+	public List<PersonBatchResultDTO> saveAll(final List<Person> persons) {
+		final List<PersonBatchResultDTO> results = new ArrayList<>(persons.size());
+		List<Person> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+		List<PersonBatchResultDTO> chunkResults = new ArrayList<>(BATCH_CHUNK_SIZE);
 		
-		person.setCpf(cpf);
+		for (int i = 0; i < persons.size(); i++) {
+			final Person person = persons.get(i);
+			final String error = this.validate(person);
+			if (error != null) {
+				results.add(new PersonBatchResultDTO(i, person == null ? null : person.getCpf(), Status.INVALID, error));
+				continue;
+			}
+			
+			final PersonBatchResultDTO result = new PersonBatchResultDTO(i, person.getCpf(), Status.SAVED, null);
+			results.add(result);
+			chunk.add(person);
+			chunkResults.add(result);
+			if (chunk.size() == BATCH_CHUNK_SIZE) {
+				this.saveChunk(chunk, chunkResults);
+				chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+				chunkResults = new ArrayList<>(BATCH_CHUNK_SIZE);
+			}
+		}
+		this.saveChunk(chunk, chunkResults);
+		dataVersion.incrementAndGet();
 		
-		return personRepository.save(person);
+		return results;
 	}
-
-	public Person findByCPF(final String cpf) {
-		final String replaceCPF = this.removeDotsAndTraces(cpf);
-		return personRepository.findById(replaceCPF).orElseThrow(()-> new PersonNotFoundException()) ;
+	
+	private String validate(final Person person) {
+		if (person == null) {
+			return "Person cannot be null";
+		}
+		try {
+			person.setCpf(CPF.normalize(person.getCpf()));
+		} catch (final CPFBadFormatedException e) {
+			return e.getMessage();
+		}
+		final Set<ConstraintViolation<Person>> violations = validator.validate(person);
+		if (violations.isEmpty()) {
+			return null;
+		}
+		return violations.stream()
+				.map(v -> v.getPropertyPath() + ": " + v.getMessage())
+				.sorted()
+				.collect(Collectors.joining(", "));
+	}
+	
+	private void saveChunk(final List<Person> chunk, final List<PersonBatchResultDTO> chunkResults) {
+		if (chunk.isEmpty()) {
+			return;
+		}
+		chunk.forEach(person -> person.setVersion(this.nextPersonVersion()));
+		try {
+			final boolean[] inserted = transactionTemplate.execute(status -> personRepository.insertAll(chunk));
+			final List<Person> saved = new ArrayList<>(chunk.size());
+			for (int i = 0; i < chunk.size(); i++) {
+				final Person person = chunk.get(i);
+				if (inserted[i]) {
+					saved.add(person);
+				} else {
+					chunkResults.get(i).setStatus(Status.CONFLICT);
+					chunkResults.get(i).setMessage(new PersonAlreadyExistsException(person.getCpf()).getMessage());
+				}
+			}
+			personSearchIndex.indexAll(saved);
+		} catch (final DataAccessException e) {
+			chunkResults.forEach(r -> {
+				r.setStatus(Status.FAILED);
+				r.setMessage(e.getMostSpecificCause().getMessage());
+			});
+		}
 	}
 
-	public Person update(final String cpf, final Person updatePerson) {
-		final String updateCPF = this.removeDotsAndTraces(cpf);		
-		return personRepository.findById(updateCPF)
-				.map(p -> {
-					p.setBirthDate(updatePerson.getBirthDate());
-					p.setEmail(updatePerson.getEmail());
-					p.setName(updatePerson.getName());
-					return personRepository.save(p);
-				}).orElseThrow(()-> new PersonNotFoundException());
+	@Timed(value = TIMER_NAME, histogram = true)
+	public PersonDTO findByCPF(final String cpf) {
+		final String replaceCPF = CPF.normalize(cpf);
+		return personRepository.findDTOByCpf(replaceCPF).orElseThrow(()-> new PersonNotFoundException()) ;
+	}
 
+	/**
+	 * Updates the person's details with a single UPDATE statement. When
+	 * {@code expectedVersion} is not null the update only happens if the stored
+	 * person still has that version, without taking any lock. The returned person
+	 * has the new version, which the statement writes instead of reading.
+	 * <p>
+	 * The statement never replaces a later version, so the table and the search
+	 * index end up with the same update when two of them race. The one that
+	 * loses counts as made just before the other one.
+	 * 
+	 * @throws PersonVersionConflictException when the stored version is another one
+	 */
+	@Timed(value = TIMER_NAME, histogram = true)
+	public Person update(final String cpf, final Person updatePerson, final Long expectedVersion) {
+		final Person person = new Person(CPF.normalize(cpf), updatePerson.getName(),
+				updatePerson.getEmail(), updatePerson.getBirthDate());
+		
+		this.checkConstraints(person);
+		
+		person.setVersion(this.nextPersonVersion());
+		if (personRepository.updateDetails(person.getCpf(), person.getName(), person.getEmail(), person.getBirthDate(),
+				expectedVersion, person.getVersion()) == 0) {
+			if (!personRepository.existsById(person.getCpf())) {
+				throw new PersonNotFoundException();
+			}
+			if (expectedVersion != null) {
+				throw new PersonVersionConflictException(person.getCpf());
+			}
+			// an update with a later version got in first
+			return person;
+		}
+		dataVersion.incrementAndGet();
+		
+		personSearchIndex.index(person);
+		return person;
 	}	
 	
-	private String removeDotsAndTraces(final String cpf) {
-		return cpf.replace(".", "").replace("-", "");
+	/**
+	 * The MERGE and UPDATE statements bypass the JPA lifecycle, so constraints
+	 * are checked here.
+	 */
+	private void checkConstraints(final Person person) {
+		final Set<ConstraintViolation<Person>> violations = validator.validate(person);
+		if (!violations.isEmpty()) {
+			throw new ConstraintViolationException(violations);
+		}
 	}
-
+	
+	@Timed(value = TIMER_NAME, histogram = true)
 	public void remove(final String cpf) {
-		final String id = this.removeDotsAndTraces(cpf);
-		personRepository.deleteById(id);
+		final String id = CPF.normalize(cpf);
+		if (personRepository.deleteByCpf(id) == 0) {
+			throw new PersonNotFoundException();
+		}
+		personSearchIndex.delete(id, this.nextPersonVersion());
+		dataVersion.incrementAndGet();
+	}
+	
+	/**
+	 * Deletes all the given persons in one transaction, with one DELETE statement
+	 * for every {@link #DELETE_CHUNK_SIZE} CPFs. Unknown CPFs are ignored. The
+	 * persons cache is cleared once the transaction commits.
+	 * 
+	 * @return the number of deleted persons
+	 */
+	@Timed(value = TIMER_NAME, histogram = true)
+	public int removeAll(final List<String> cpfs) {
+		final List<String> ids = cpfs.stream()
+				.map(CPF::normalize)
+				.distinct()
+				.collect(Collectors.toList());
+		
+		final Integer deleted = transactionTemplate.execute(status -> {
+			if (TransactionSynchronizationManager.isSynchronizationActive()) {
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCommit() {
+						cacheManager.getCache(PersonRepository.CACHE_NAME).clear();
+					}
+				});
+			}
+			int count = 0;
+			for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+				count += personRepository.deleteByCpfIn(ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size())));
+			}
+			return count;
+		});
+		personSearchIndex.deleteAll(ids, this.nextPersonVersion());
+		dataVersion.incrementAndGet();
+		return deleted;
+	}
+	
+	/**
+	 * Ranked, typo tolerant search on names and emails. It only reads the search
+	 * index, never the database.
+	 */
+	@Timed(value = TIMER_NAME, histogram = true)
+	public List<PersonDTO> fullTextSearch(final String text, final int limit) {
+		return personSearchIndex.search(text, pageSize(limit));
+	}
+	
+	/**
+	 * Rebuilds the search index from a stream over the whole table.
+	 * 
+	 * @return the number of indexed persons
+	 */
+	@Timed(value = TIMER_NAME, histogram = true)
+	@Transactional(readOnly = true)
+	public long rebuildSearchIndex() {
+		return personSearchIndex.rebuild(this::exportAll);
 	}
 }
@@ -0,0 +1,114 @@
+package com.webcarros.storage;
+
+import java.util.List;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import com.webcarros.api.PersonRestController;
+import com.webcarros.dto.PersonDTO;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Brings a restarted node close to one that has been running for a while
+ * before it reports itself ready. It reads the whole person table and each of
+ * its indexes once, so their pages are in the H2 page cache. It then replays
+ * {@code webcarros.storage.warm-up-requests} reads against the API, so the
+ * request path is loaded and compiled by the JIT.
+ * <p>
+ * The replayed reads carry the {@link #WARM_UP_HEADER} header, which keeps
+ * them out of the request metrics.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "webcarros.storage.warm-up", havingValue = "true")
+@RequiredArgsConstructor
+public class PersonStorageWarmer implements ApplicationRunner {
+
+	public static final String WARM_UP_HEADER = "X-Warm-Up";
+
+	/**
+	 * One scan per storage structure: the rows, then the primary key, name and
+	 * email indexes, each picked by its range condition.
+	 */
+	static final List<String> WARM_UP_QUERIES = List.of(
+			"select count(version) from person",
+			"select count(cpf) from person where cpf >= ''",
+			"select count(name) from person where name >= ''",
+			"select count(email) from person where email >= ''");
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final RestTemplateBuilder restTemplateBuilder;
+
+	private final Environment environment;
+
+	@Override
+	public void run(final ApplicationArguments args) {
+		long start = System.nanoTime();
+		final long rows = this.warmUp();
+		log.info("Person storage warmed up, {} rows read in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+
+		final String port = environment.getProperty("local.server.port");
+		final int requests = environment.getProperty("webcarros.storage.warm-up-requests", Integer.class, 0);
+		if (port != null && requests > 0) {
+			start = System.nanoTime();
+			final int replayed = this.replayReads("http://localhost:" + port, requests);
+			log.info("Person API warmed up, {} requests in {} ms", replayed, (System.nanoTime() - start) / 1_000_000);
+		}
+	}
+
+	/**
+	 * @return the number of rows read over every scan
+	 */
+	public long warmUp() {
+		return WARM_UP_QUERIES.stream()
+				.mapToLong(sql -> jdbcTemplate.queryForObject(sql, Long.class))
+				.sum();
+	}
+
+	/**
+	 * Walks the person pages and reads each listed person by id, starting over
+	 * from the first page at the end of the table, until {@code requests} reads
+	 * were made. Stops early on an empty table or a failed request, the node
+	 * then starts colder but still starts.
+	 *
+	 * @return the number of requests made
+	 */
+	public int replayReads(final String baseUrl, final int requests) {
+		final RestTemplate restTemplate = restTemplateBuilder.rootUri(baseUrl)
+				.defaultHeader(WARM_UP_HEADER, "true")
+				.build();
+		int made = 0;
+		String after = null;
+		try {
+			while (made < requests) {
+				final ResponseEntity<PersonDTO[]> page = after == null
+						? restTemplate.getForEntity("/api/persons", PersonDTO[].class)
+						: restTemplate.getForEntity("/api/persons?after={after}", PersonDTO[].class, after);
+				made++;
+				final PersonDTO[] persons = page.getBody();
+				if (persons == null || persons.length == 0) {
+					break;
+				}
+				for (int i = 0; i < persons.length && made < requests; i++, made++) {
+					restTemplate.getForEntity("/api/persons/{id}", PersonDTO.class, persons[i].getCpf());
+				}
+				after = page.getHeaders().getFirst(PersonRestController.NEXT_CURSOR_HEADER);
+			}
+		} catch (final RestClientException e) {
+			log.warn("Person API warm-up stopped after {} requests", made, e);
+		}
+		return made;
+	}
+}
@@ -0,0 +1,50 @@
+package com.webcarros;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("fast-boot")
+public class FastBootProfileTest {
+	
+	@Autowired MockMvc mockMvc;
+	
+	@Autowired ConfigurableApplicationContext context;
+	
+	@Test
+	void testBeansAreCreatedOnFirstUse() {
+		//Assert
+		assertThat(context.getBeanFactory().getBeanDefinition("personService").isLazyInit()).isTrue();
+		assertThat(context.getBeanFactory().getBeanDefinition("personRestController").isLazyInit()).isTrue();
+	}
+	
+	@Test
+	void testServesPersons() throws Exception {
+		//Arrange
+		this.mockMvc.perform(asyncDispatch(this.mockMvc.perform(post("/api/persons")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"cpf\":\"529.982.247-25\",\"name\":\"DEBIAN\",\"email\":\"debian@debian.org\"}"))
+				.andReturn()))
+			.andExpect(status().isCreated());
+		
+		//Act
+		this.mockMvc.perform(asyncDispatch(this.mockMvc.perform(get("/api/persons/52998224725")).andReturn()))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().json("{\"cpf\":\"52998224725\",\"name\":\"DEBIAN\"}"));
+	}
+}
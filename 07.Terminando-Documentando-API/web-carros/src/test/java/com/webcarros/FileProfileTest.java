@@ -0,0 +1,85 @@
+package com.webcarros;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.UUID;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.services.PersonService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Starts the application twice on the same files, like a node restarted with
+ * the {@code file} profile. The H2 URL of the profile prefixes the storage
+ * path with {@code ./}, so the files go under target rather than a temporary
+ * directory.
+ */
+public class FileProfileTest {
+
+	private final Path dir = Path.of("target", "file-profile-" + UUID.randomUUID());
+
+	@AfterEach
+	void tearDown() throws IOException {
+		FileSystemUtils.deleteRecursively(dir);
+	}
+
+	private ConfigurableApplicationContext start() {
+		return new SpringApplicationBuilder(WebCarrosApplication.class)
+				.profiles("file")
+				.run("--server.port=0",
+						"--webcarros.storage.path=" + dir.resolve("webcarros"),
+						"--webcarros.search.index-dir=" + dir.resolve("search-index"));
+	}
+
+	@Test
+	void testPersonsOutliveARestart() {
+		//Arrange
+		try (ConfigurableApplicationContext context = start()) {
+			context.getBean(PersonService.class)
+					.save(new Person("52998224725", "DEBIAN", "debian@debian.org", LocalDate.parse("2000-01-01")));
+		}
+
+		//Act
+		try (ConfigurableApplicationContext context = start()) {
+			//Assert
+			assertThat(context.getBean(PersonService.class).findByCPF("52998224725").getName()).isEqualTo("DEBIAN");
+			assertThat(context.getBean(ApplicationAvailability.class).getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+		}
+	}
+
+	@Test
+	void testWarmUpRequestsAreNotTimed() {
+		//Arrange
+		try (ConfigurableApplicationContext context = start()) {
+			context.getBean(PersonService.class)
+					.save(new Person("52998224725", "DEBIAN", "debian@debian.org", LocalDate.parse("2000-01-01")));
+		}
+
+		try (ConfigurableApplicationContext context = start()) {
+			final MeterRegistry registry = context.getBean(MeterRegistry.class);
+			assertThat(registry.find("http.server.requests").timers()).isEmpty();
+
+			//Act
+			new RestTemplateBuilder()
+					.rootUri("http://localhost:" + context.getEnvironment().getProperty("local.server.port"))
+					.build()
+					.getForObject("/api/persons/52998224725", String.class);
+
+			//Assert
+			assertThat(registry.find("http.server.requests").timers()).hasSize(1);
+		}
+	}
+}
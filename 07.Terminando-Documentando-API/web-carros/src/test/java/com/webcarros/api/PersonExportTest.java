@@ -0,0 +1,52 @@
+package com.webcarros.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.services.PersonService;
+
+/**
+ * Runs on a real server, since MockMvc never lets an async request time out.
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = "spring.mvc.async.request-timeout=200ms")
+public class PersonExportTest {
+
+	@Autowired TestRestTemplate restTemplate;
+
+	@MockBean PersonService personService;
+
+	@Test
+	void testExportOutlivesRequestTimeout() {
+		//Arrange
+		doAnswer(i -> {
+			final Consumer<Person> action = i.getArgument(0);
+			action.accept(new Person("12345678909", "UBUNTU", "ubuntu@ubuntu.com", LocalDate.parse("2000-01-01")));
+			Thread.sleep(1000);
+			action.accept(new Person("52998224725", "DEBIAN", "debian@debian.org", LocalDate.parse("2000-01-02")));
+			return null;
+		}).when(personService).exportAll(any());
+
+		//Act
+		final ResponseEntity<String> response = restTemplate.getForEntity("/api/persons/export", String.class);
+
+		//Assert
+		assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(response.getBody().split("\n"))
+			.hasSize(2)
+			.allSatisfy(line -> assertThat(line).startsWith("{\"cpf\":"));
+	}
+}
@@ -0,0 +1,212 @@
+package com.webcarros.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webcarros.config.BinaryFormatsConfiguration;
+import com.webcarros.dto.PersonDTO;
+import com.webcarros.mappers.PersonMapperImpl;
+import com.webcarros.services.PersonService;
+
+@WebMvcTest(controllers = PersonRestController.class, properties = {
+		"server.compression.enabled=true",
+		"server.compression.min-response-size=2KB"
+})
+@Import({PersonMapperImpl.class, BinaryFormatsConfiguration.class})
+public class PersonPageCacheFilterTest {
+
+	/**
+	 * The cache outlives each test, every test starts from a data version of its own.
+	 */
+	private static final AtomicLong VERSIONS = new AtomicLong();
+
+	@Autowired MockMvc mockMvc;
+
+	@Autowired ObjectMapper objectMapper;
+
+	@MockBean PersonService personService;
+
+	private ResultActions perform(final RequestBuilder request) throws Exception {
+		final ResultActions actions = this.mockMvc.perform(request);
+		final MvcResult result = actions.andReturn();
+		if (!result.getRequest().isAsyncStarted()) {
+			return actions;
+		}
+		return this.mockMvc.perform(asyncDispatch(result));
+	}
+
+	@Test
+	void testSecondRequestServedFromCache() throws Exception {
+		//Arrange
+		final List<PersonDTO> persons = buildPersons(50);
+		final long version = VERSIONS.incrementAndGet();
+		when(personService.getDataVersion()).thenReturn(version);
+		when(personService.listPage(eq("12345678900"), eq(50)))
+			.thenReturn(new SliceImpl<>(persons, PageRequest.of(0, 50), true));
+
+		//Act
+		final MvcResult first = this.perform(get("/api/persons?after=12345678900&limit=50").header("Accept-Encoding", "gzip"))
+			.andReturn();
+		final MvcResult second = this.perform(get("/api/persons?after=12345678900&limit=50").header("Accept-Encoding", "gzip"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+			.andExpect(header().string("Content-Encoding", "gzip"))
+			.andExpect(header().string("ETag", "\"" + version + "\""))
+			.andExpect(header().stringValues("Vary", "Accept", "Accept-Encoding"))
+			.andExpect(header().string(PersonRestController.NEXT_CURSOR_HEADER, persons.get(49).getCpf()))
+			.andReturn();
+
+		verify(personService, times(1)).listPage(any(), anyInt());
+		assertThat(second.getRequest().isAsyncStarted()).isFalse();
+		assertThat(second.getResponse().getContentAsByteArray()).isEqualTo(first.getResponse().getContentAsByteArray());
+		assertThat(second.getResponse().getContentLength()).isEqualTo(second.getResponse().getContentAsByteArray().length);
+		assertThat(gunzip(second.getResponse().getContentAsByteArray())).isEqualTo(objectMapper.writeValueAsBytes(persons));
+	}
+
+	@Test
+	void testWriteInvalidatesCache() throws Exception {
+		//Arrange
+		final long version = VERSIONS.incrementAndGet();
+		when(personService.getDataVersion()).thenReturn(version);
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(buildPersons(50)));
+		this.perform(get("/api/persons?limit=7").header("Accept-Encoding", "gzip"));
+
+		final List<PersonDTO> updated = buildPersons(49);
+		when(personService.getDataVersion()).thenReturn(VERSIONS.incrementAndGet());
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(updated));
+
+		//Act
+		final MvcResult result = this.perform(get("/api/persons?limit=7").header("Accept-Encoding", "gzip"))
+			//Assert
+			.andExpect(status().isOk())
+			.andReturn();
+		verify(personService, times(2)).listPage(any(), anyInt());
+		assertThat(gunzip(result.getResponse().getContentAsByteArray())).isEqualTo(objectMapper.writeValueAsBytes(updated));
+	}
+
+	@Test
+	void testSmallBodyCachedUncompressed() throws Exception {
+		//Arrange
+		final List<PersonDTO> persons = buildPersons(1);
+		when(personService.getDataVersion()).thenReturn(VERSIONS.incrementAndGet());
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(persons));
+		this.perform(get("/api/persons?limit=1").header("Accept-Encoding", "gzip, deflate"));
+
+		//Act
+		this.perform(get("/api/persons?limit=1").header("Accept-Encoding", "gzip, deflate"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist("Content-Encoding"))
+			.andExpect(content().json(objectMapper.writeValueAsString(persons)));
+		verify(personService, times(1)).listPage(any(), anyInt());
+	}
+
+	@Test
+	void testFormatsCachedApart() throws Exception {
+		//Arrange
+		when(personService.getDataVersion()).thenReturn(VERSIONS.incrementAndGet());
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(buildPersons(50)));
+		this.perform(get("/api/persons?limit=2").header("Accept-Encoding", "gzip"));
+
+		//Act
+		this.perform(get("/api/persons?limit=2").header("Accept-Encoding", "gzip").accept(MediaType.APPLICATION_CBOR))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+		verify(personService, times(2)).listPage(any(), anyInt());
+	}
+
+	@Test
+	void testConditionalRequestNotModified() throws Exception {
+		//Arrange
+		final long version = VERSIONS.incrementAndGet();
+		when(personService.getDataVersion()).thenReturn(version);
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(buildPersons(50)));
+		this.perform(get("/api/persons?limit=3").header("Accept-Encoding", "gzip"));
+
+		//Act
+		this.perform(get("/api/persons?limit=3").header("Accept-Encoding", "gzip").header("If-None-Match", "\"" + version + "\""))
+			//Assert
+			.andExpect(status().isNotModified())
+			.andExpect(content().string(""));
+	}
+
+	@Test
+	void testWithoutGzipNotCached() throws Exception {
+		//Arrange
+		when(personService.getDataVersion()).thenReturn(VERSIONS.incrementAndGet());
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(buildPersons(50)));
+
+		//Act
+		this.perform(get("/api/persons?limit=4").header("Accept-Encoding", "gzip;q=0, identity"));
+		this.perform(get("/api/persons?limit=4"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist("Content-Encoding"))
+			.andExpect(header().stringValues("Vary", "Accept-Encoding", "Accept"));
+		verify(personService, times(2)).listPage(any(), anyInt());
+	}
+
+	@Test
+	void testAcceptsGzip() {
+		//Assert
+		assertThat(PersonPageCacheFilter.acceptsGzip("gzip")).isTrue();
+		assertThat(PersonPageCacheFilter.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+		assertThat(PersonPageCacheFilter.acceptsGzip("br, *")).isTrue();
+		assertThat(PersonPageCacheFilter.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(PersonPageCacheFilter.acceptsGzip("gzip; q=0.000")).isFalse();
+		assertThat(PersonPageCacheFilter.acceptsGzip("identity")).isFalse();
+		assertThat(PersonPageCacheFilter.acceptsGzip(null)).isFalse();
+		assertThat(PersonPageCacheFilter.acceptsGzip("*, gzip;q=0")).isFalse();
+		assertThat(PersonPageCacheFilter.acceptsGzip("gzip;q=0, *")).isFalse();
+		assertThat(PersonPageCacheFilter.acceptsGzip("*;q=0, gzip")).isTrue();
+		assertThat(PersonPageCacheFilter.acceptsGzip("*;q=0")).isFalse();
+		assertThat(PersonPageCacheFilter.acceptsGzip("gzip;Q=0.001")).isTrue();
+	}
+
+	private static byte[] gunzip(final byte[] body) throws Exception {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static List<PersonDTO> buildPersons(final int size) {
+		return IntStream.range(0, size)
+				.mapToObj(i -> new PersonDTO(String.format("%011d", i), "PERSON-" + i, "person-" + i + "@email.com.br",
+						LocalDate.parse("2000-01-01").plusDays(i)))
+				.collect(Collectors.toList());
+	}
+}
@@ -2,35 +2,74 @@ package com.webcarros.api;
 
 
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webcarros.config.BinaryFormatsConfiguration;
 import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonBatchResultDTO;
+import com.webcarros.dto.PersonBatchResultDTO.Status;
 import com.webcarros.dto.PersonDTO;
 import com.webcarros.exceptions.CPFBadFormatedException;
+import com.webcarros.exceptions.InvalidSearchException;
+import com.webcarros.exceptions.PersonAlreadyExistsException;
+import com.webcarros.exceptions.PersonNotFoundException;
+import com.webcarros.exceptions.PersonVersionConflictException;
+import com.webcarros.mappers.PersonMapperImpl;
 import com.webcarros.services.PersonService;
 
-@WebMvcTest(PersonRestController.class)
+@WebMvcTest(controllers = PersonRestController.class, properties = {
+		"webcarros.executor.pool-size=1",
+		"webcarros.executor.queue-capacity=1",
+		"webcarros.executor.export-pool-size=1"
+})
+@Import({PersonMapperImpl.class, BinaryFormatsConfiguration.class})
 public class PersonRestControllerTest {
 	
 	@Autowired MockMvc mockMvc;
@@ -39,30 +78,147 @@ public class PersonRestControllerTest {
 	
 	@MockBean PersonService personService;
 	
+	@Autowired ThreadPoolTaskExecutor personExecutor;
+	
+	@Autowired ThreadPoolTaskExecutor exportExecutor;
+	
+	@Autowired MappingJackson2CborHttpMessageConverter cborConverter;
+	
+	@Autowired MappingJackson2SmileHttpMessageConverter smileConverter;
+	
+	/**
+	 * Performs the request and, when the handler went asynchronous, dispatches its
+	 * result so the assertions see the final response.
+	 */
+	private ResultActions perform(final RequestBuilder request) throws Exception {
+		final ResultActions actions = this.mockMvc.perform(request);
+		final MvcResult result = actions.andReturn();
+		if (!result.getRequest().isAsyncStarted()) {
+			return actions;
+		}
+		return this.mockMvc.perform(asyncDispatch(result));
+	}
+	
 	@Test
 	void testListUsersAPI() throws Exception {
 		//Arrange
 		final PersonDTO person1DTO = builPersonDTO();
-		final Person person1 = buildPerson(person1DTO);
 		
 		
 		final String person2CPF = "98765431897";
 		final String person2Name = "person2";
 		final String person2Email = "person2@email.com.br";
 		final LocalDate person2Date = LocalDate.parse("2000-01-02");		
-		final Person person2 = new Person(person2CPF,person2Name,person2Email, person2Date);
-		final PersonDTO person2DTO = new PersonDTO(person2CPF,person2Name,person2Email, person2Date);
-		
-		final List<Person> personList = List.of(person1,person2);		
-		when(personService.listAll()).thenReturn(personList);		
+		final PersonDTO person2DTO = new PersonDTO(person2CPF,person2Name,person2Email, person2Date, 7L);
 		
 		final List<PersonDTO> personDTOList = List.of(person1DTO, person2DTO);
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(personDTOList));		
 		
 		//Act
-		this.mockMvc.perform(get("/api/persons"))
+		this.perform(get("/api/persons"))
 			//Assert
 			.andExpect(status().isOk())
 			.andExpect(content().json(objectMapper.writeValueAsString(personDTOList)))
+			.andExpect(content().string(not(containsString("version"))))
+			.andExpect(header().doesNotExist(PersonRestController.NEXT_CURSOR_HEADER))
+			.andDo(print());
+	}
+	
+	@Test
+	void testListUsersAsCBOR() throws Exception {
+		//Arrange
+		final List<PersonDTO> personDTOList = List.of(builPersonDTO(),
+				new PersonDTO("98765431897", "person2", "person2@email.com.br", LocalDate.parse("2000-01-02")));
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(personDTOList));
+		
+		//Act
+		final MvcResult result = this.perform(get("/api/persons").accept(MediaType.APPLICATION_CBOR))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+			.andExpect(header().stringValues("Vary", "Accept-Encoding", "Accept"))
+			.andReturn();
+		assertThat(cborConverter.getObjectMapper().readValue(result.getResponse().getContentAsByteArray(), PersonDTO[].class))
+			.containsExactlyElementsOf(personDTOList);
+	}
+	
+	@Test
+	void testListUsersDefaultsToJSON() throws Exception {
+		//Arrange
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(List.of(builPersonDTO())));
+		
+		//Act
+		this.perform(get("/api/persons").accept(MediaType.ALL))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+			.andDo(print());
+	}
+	
+	@Test
+	void testListUsersNotModified() throws Exception {
+		//Arrange
+		when(personService.getDataVersion()).thenReturn(42L);
+		
+		//Act
+		this.perform(get("/api/persons").header("If-None-Match", "\"42\""))
+			//Assert
+			.andExpect(status().isNotModified())
+			.andExpect(header().string("ETag", "\"42\""))
+			.andExpect(content().string(""))
+			.andDo(print());
+		verify(personService).getDataVersion();
+	}
+	
+	@Test
+	void testListUsersETag() throws Exception {
+		//Arrange
+		when(personService.getDataVersion()).thenReturn(43L);
+		when(personService.listPage(any(), anyInt())).thenReturn(new SliceImpl<>(List.of()));
+		
+		//Act
+		this.perform(get("/api/persons").header("If-None-Match", "\"42\""))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "\"43\""))
+			.andDo(print());
+	}
+	
+	@Test
+	void testListUsersNextCursor() throws Exception {
+		//Arrange
+		final PersonDTO personDTO = builPersonDTO();
+		when(personService.listPage(eq("12345678900"), eq(1))).thenReturn(new SliceImpl<>(List.of(personDTO), PageRequest.of(0, 1), true));
+		
+		//Act
+		this.perform(get("/api/persons").param("after", "12345678900").param("limit", "1"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(header().string(PersonRestController.NEXT_CURSOR_HEADER, personDTO.getCpf()))
+			.andDo(print());
+	}
+
+	@Test
+	void testExportPersonsAsNDJSON() throws Exception {
+		//Arrange
+		final PersonDTO person1DTO = builPersonDTO();
+		final PersonDTO person2DTO = new PersonDTO("98765431897", "person2", "person2@email.com.br", LocalDate.parse("2000-01-02"));
+		doAnswer(i -> {
+			final Consumer<Person> action = i.getArgument(0);
+			action.accept(buildPerson(person1DTO));
+			action.accept(buildPerson(person2DTO));
+			return null;
+		}).when(personService).exportAll(any());
+		
+		final String expected = objectMapper.writeValueAsString(person1DTO) + "\n"
+				+ objectMapper.writeValueAsString(person2DTO) + "\n";
+		
+		//Act
+		this.perform(get("/api/persons/export"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().contentType(PersonRestController.APPLICATION_NDJSON_VALUE))
+			.andExpect(content().string(expected))
 			.andDo(print());
 	}
 
@@ -79,7 +235,7 @@ public class PersonRestControllerTest {
 		when(personService.save(any(Person.class))).then(i -> i.getArgument(0));
 		
 		//Act
-		this.mockMvc.perform(post("/api/persons")
+		this.perform(post("/api/persons")
 				.content(objectMapper.writeValueAsString(personDTO))
 				.contentType(MediaType.APPLICATION_JSON)
 				.characterEncoding("utf-8"))
@@ -89,6 +245,45 @@ public class PersonRestControllerTest {
 				.andDo(print());
 	}
 	
+	@Test
+	void testSaveAsSmile() throws Exception {
+		//Arrange
+		final PersonDTO personDTO = builPersonDTO();
+		final ObjectMapper smileMapper = smileConverter.getObjectMapper();
+		when(personService.save(any(Person.class))).then(i -> i.getArgument(0));
+		
+		//Act
+		final MvcResult result = this.perform(post("/api/persons")
+				.content(smileMapper.writeValueAsBytes(personDTO))
+				.contentType(PersonRestController.APPLICATION_SMILE_VALUE)
+				.accept(PersonRestController.APPLICATION_SMILE_VALUE))
+			//Assert
+			.andExpect(status().isCreated())
+			.andExpect(content().contentType(PersonRestController.APPLICATION_SMILE_VALUE))
+			.andReturn();
+		assertThat(smileMapper.readValue(result.getResponse().getContentAsByteArray(), PersonDTO.class)).isEqualTo(personDTO);
+	}
+	
+	@Test
+	public void testBatchSave() throws Exception {
+		//Arrange
+		final PersonDTO personDTO = builPersonDTO();
+		final List<PersonBatchResultDTO> results = List.of(
+				new PersonBatchResultDTO(0, personDTO.getCpf(), Status.SAVED, null),
+				new PersonBatchResultDTO(1, "123", Status.INVALID, "CPF INVÁLIDO 123"));
+		when(personService.saveAll(any())).thenReturn(results);
+		
+		//Act
+		this.perform(post("/api/persons/batch")
+				.content(objectMapper.writeValueAsString(List.of(personDTO, personDTO)))
+				.contentType(MediaType.APPLICATION_JSON)
+				.characterEncoding("utf-8"))
+				//Assert
+				.andExpect(status().isOk())
+				.andExpect(content().json(objectMapper.writeValueAsString(results)))
+				.andDo(print());
+	}
+	
 	@Test
 	public void testCPFMalFormated() throws Exception {
 
@@ -97,7 +292,7 @@ public class PersonRestControllerTest {
 		when(personService.save(any(Person.class))).thenThrow(new CPFBadFormatedException(personDTO.getCpf()));
 		
 		//Act
-		this.mockMvc.perform(post("/api/persons")
+		this.perform(post("/api/persons")
 				.content(objectMapper.writeValueAsString(personDTO))
 				.contentType(MediaType.APPLICATION_JSON)
 				.characterEncoding("utf-8"))
@@ -107,29 +302,235 @@ public class PersonRestControllerTest {
 				.andDo(print());
 	}
 	
+	@Test
+	void testSearchUsers() throws Exception {
+		//Arrange
+		final PersonDTO personDTO = builPersonDTO();
+		when(personService.search("pers", null, 5)).thenReturn(List.of(personDTO));
+		
+		//Act
+		this.perform(get("/api/persons/search").param("name", "pers").param("limit", "5"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().json(objectMapper.writeValueAsString(List.of(personDTO))))
+			.andDo(print());
+	}
+	
+	@Test
+	void testFullTextSearchUsers() throws Exception {
+		//Arrange
+		final PersonDTO personDTO = builPersonDTO();
+		when(personService.fullTextSearch("persn", PersonService.DEFAULT_PAGE_SIZE)).thenReturn(List.of(personDTO));
+		
+		//Act
+		this.perform(get("/api/persons/search/full-text").param("q", "persn"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().json(objectMapper.writeValueAsString(List.of(personDTO))))
+			.andDo(print());
+		verify(personService, never()).search(any(), any(), anyInt());
+	}
+	
+	@Test
+	void testRebuildSearchIndex() throws Exception {
+		//Arrange
+		when(personService.rebuildSearchIndex()).thenReturn(42L);
+		
+		//Act
+		this.perform(post("/api/persons/search/index"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().string("42"));
+	}
+	
+	@Test
+	void testSearchUsersWithoutPrefix() throws Exception {
+		//Arrange
+		when(personService.search(any(), any(), anyInt())).thenThrow(new InvalidSearchException());
+		
+		//Act
+		this.perform(get("/api/persons/search"))
+			//Assert
+			.andExpect(status().isBadRequest())
+			.andDo(print());
+	}
+	
 	@Test
 	public void testFindUserById() throws  Exception {
 		
 		//Arrange
 		final PersonDTO personDTO = this.builPersonDTO();
-		final Person person = buildPerson(personDTO);
-		when(personService.findByCPF(any())).thenReturn(person);
+		when(personService.findByCPF(any())).thenReturn(personDTO);
 		
 		//Act
-		this.mockMvc.perform(get("/api/persons/12345678901"))
+		this.perform(get("/api/persons/12345678901"))
 			//Assert
 			.andExpect(status().isOk())
 			.andExpect(content().json(objectMapper.writeValueAsString(personDTO)))
 			.andDo(print());
 	}
 	
+	@Test
+	void testFindUserByIdRunsOnThePersonExecutor() throws Exception {
+		//Arrange
+		final PersonDTO personDTO = this.builPersonDTO();
+		final List<String> threads = new ArrayList<>();
+		when(personService.findByCPF(any())).then(i -> {
+			threads.add(Thread.currentThread().getName());
+			return personDTO;
+		});
+		
+		//Act
+		final MvcResult result = this.mockMvc.perform(get("/api/persons/12345678901"))
+			//Assert
+			.andExpect(request().asyncStarted())
+			.andReturn();
+		this.mockMvc.perform(asyncDispatch(result))
+			.andExpect(status().isOk());
+		assertThat(threads).hasSize(1).allMatch(name -> name.startsWith("person-"));
+	}
+	
+	@Test
+	void testSaturatedExecutorAnswers503() throws Exception {
+		//Arrange
+		final CountDownLatch release = new CountDownLatch(1);
+		when(personService.findByCPF(any())).then(i -> {
+			release.await(10, TimeUnit.SECONDS);
+			return this.builPersonDTO();
+		});
+		awaitActiveThreads(personExecutor, 0);
+		final MvcResult running = this.mockMvc.perform(get("/api/persons/12345678901")).andReturn();
+		awaitActiveThreads(personExecutor, 1);
+		final MvcResult queued = this.mockMvc.perform(get("/api/persons/12345678901")).andReturn();
+		
+		//Act
+		this.mockMvc.perform(get("/api/persons/12345678901").accept(MediaType.APPLICATION_CBOR))
+			//Assert
+			.andExpect(status().isServiceUnavailable())
+			.andExpect(header().string("Retry-After", "1"))
+			.andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
+			.andExpect(content().string("SERVIDOR OCUPADO, TENTE NOVAMENTE"))
+			.andDo(print());
+		
+		release.countDown();
+		this.mockMvc.perform(asyncDispatch(running)).andExpect(status().isOk());
+		this.mockMvc.perform(asyncDispatch(queued)).andExpect(status().isOk());
+	}
+	
+	@Test
+	void testSaturatedExportsDoNotHoldThePersonExecutor() throws Exception {
+		//Arrange
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<String> threads = new ArrayList<>();
+		doAnswer(i -> {
+			threads.add(Thread.currentThread().getName());
+			release.await(10, TimeUnit.SECONDS);
+			return null;
+		}).when(personService).exportAll(any());
+		when(personService.findByCPF(any())).thenReturn(this.builPersonDTO());
+		awaitActiveThreads(exportExecutor, 0);
+		final MvcResult running = this.mockMvc.perform(get("/api/persons/export")).andReturn();
+		awaitActiveThreads(exportExecutor, 1);
+		
+		//Act
+		this.mockMvc.perform(get("/api/persons/export"))
+			//Assert
+			.andExpect(status().isServiceUnavailable())
+			.andExpect(header().string("Retry-After", "1"));
+		this.perform(get("/api/persons/12345678901"))
+			.andExpect(status().isOk());
+		
+		release.countDown();
+		this.mockMvc.perform(asyncDispatch(running)).andExpect(status().isOk());
+		assertThat(threads).hasSize(1).allMatch(name -> name.startsWith("export-"));
+	}
+	
+	private static void awaitActiveThreads(final ThreadPoolTaskExecutor executor, final int count) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (executor.getActiveCount() != count && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(executor.getActiveCount()).isEqualTo(count);
+	}
+	
+	@Test
+	public void testFindUserByIdETag() throws  Exception {
+		
+		//Arrange
+		final PersonDTO person = this.builPersonDTO();
+		person.setVersion(3L);
+		when(personService.findByCPF(any())).thenReturn(person);
+		
+		//Act
+		this.perform(get("/api/persons/12345678901"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(header().string("ETag", "\"3\""))
+			.andDo(print());
+	}
+	
+	@Test
+	public void testFindUserByIdNotModified() throws  Exception {
+		
+		//Arrange
+		final PersonDTO person = this.builPersonDTO();
+		person.setVersion(3L);
+		when(personService.findByCPF(any())).thenReturn(person);
+		
+		//Act
+		this.perform(get("/api/persons/12345678901").header("If-None-Match", "\"3\""))
+			//Assert
+			.andExpect(status().isNotModified())
+			.andExpect(content().string(""))
+			.andDo(print());
+	}
+	
+	@Test
+	public void testSaveExistingUser() throws Exception {
+
+		//Arrange
+		final PersonDTO personDTO = builPersonDTO();
+		when(personService.save(any(Person.class))).thenThrow(new PersonAlreadyExistsException(personDTO.getCpf()));
+		
+		//Act
+		this.perform(post("/api/persons")
+				.content(objectMapper.writeValueAsString(personDTO))
+				.contentType(MediaType.APPLICATION_JSON)
+				.characterEncoding("utf-8"))
+				//Assert
+				.andExpect(status().isConflict())
+				.andExpect(content().string(containsString(personDTO.getCpf())))
+				.andDo(print());
+	}
+	
 	@Test
 	public void testDeleteUserById() throws Exception {
 		
 		doNothing().when(personService).remove(any());
 		
-		this.mockMvc.perform(delete("/api/persons/12345678901"))
-			.andExpect(status().isOk());
+		this.perform(delete("/api/persons/12345678901"))
+			.andExpect(status().isNoContent());
+	}
+	
+	@Test
+	public void testDeleteUserByIdNotFound() throws Exception {
+		
+		doThrow(new PersonNotFoundException()).when(personService).remove(any());
+		
+		this.perform(delete("/api/persons/12345678909"))
+			.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	public void testDeleteUsers() throws Exception {
+		
+		when(personService.removeAll(any())).thenReturn(2);
+		
+		this.perform(delete("/api/persons")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[\"12345678909\",\"529.982.247-25\"]"))
+			.andExpect(status().isNoContent());
+		verify(personService).removeAll(List.of("12345678909", "529.982.247-25"));
 	}
 	
 	@Test
@@ -137,19 +538,97 @@ public class PersonRestControllerTest {
 		
 		final PersonDTO personDTO = this.builPersonDTO();
 		
-		when(personService.update(any(String.class), any(Person.class))).thenAnswer(i -> i.getArgument(1));
+		when(personService.update(any(String.class), any(Person.class), isNull())).thenAnswer(i -> {
+			final Person person = i.getArgument(1);
+			person.setVersion(4L);
+			return person;
+		});
 		
-		this.mockMvc.perform(put("/api/persons/123456789017")
+		this.perform(put("/api/persons/123456789017")
 				.content(objectMapper.writeValueAsString(personDTO))
 				.contentType(MediaType.APPLICATION_JSON)
 				.characterEncoding("utf-8"))
 				//Assert
 				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"4\""))
 				.andExpect(content().json(objectMapper.writeValueAsString(personDTO)))
 				.andDo(print());
 		
 	}
 
+	@Test
+	public void testUpdateUserIfMatch() throws Exception {
+		
+		final PersonDTO personDTO = this.builPersonDTO();
+		
+		when(personService.update(any(String.class), any(Person.class), eq(3L))).thenAnswer(i -> {
+			final Person person = i.getArgument(1);
+			person.setVersion(4L);
+			return person;
+		});
+		
+		this.perform(put("/api/persons/12345678909")
+				.header("If-Match", "\"3\"")
+				.content(objectMapper.writeValueAsString(personDTO))
+				.contentType(MediaType.APPLICATION_JSON)
+				.characterEncoding("utf-8"))
+				//Assert
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"4\""))
+				.andExpect(content().json(objectMapper.writeValueAsString(personDTO)))
+				.andDo(print());
+	}
+	
+	@Test
+	public void testUpdateUserIfMatchConflict() throws Exception {
+		
+		final PersonDTO personDTO = this.builPersonDTO();
+		
+		when(personService.update(any(String.class), any(Person.class), eq(3L))).thenThrow(new PersonVersionConflictException("12345678909"));
+		
+		this.perform(put("/api/persons/12345678909")
+				.header("If-Match", "\"3\"")
+				.content(objectMapper.writeValueAsString(personDTO))
+				.contentType(MediaType.APPLICATION_JSON)
+				.characterEncoding("utf-8"))
+				//Assert
+				.andExpect(status().isPreconditionFailed())
+				.andDo(print());
+	}
+	
+	@Test
+	public void testUpdateUserWeakIfMatch() throws Exception {
+		
+		final PersonDTO personDTO = this.builPersonDTO();
+		
+		this.perform(put("/api/persons/12345678909")
+				.header("If-Match", "W/\"3\"")
+				.content(objectMapper.writeValueAsString(personDTO))
+				.contentType(MediaType.APPLICATION_JSON)
+				.characterEncoding("utf-8"))
+				//Assert
+				.andExpect(status().isPreconditionFailed())
+				.andDo(print());
+		verifyNoInteractions(personService);
+	}
+	
+	@Test
+	public void testUpdateUnknownUser() throws Exception {
+		
+		final PersonDTO personDTO = this.builPersonDTO();
+		
+		when(personService.update(any(String.class), any(Person.class), any())).thenThrow(new PersonNotFoundException());
+		
+		this.perform(put("/api/persons/12345678909")
+				.content(objectMapper.writeValueAsString(personDTO))
+				.contentType(MediaType.APPLICATION_JSON)
+				.characterEncoding("utf-8"))
+				//Assert
+				.andExpect(status().isNotFound())
+				.andDo(print());
+		
+	}
+
 	private PersonDTO builPersonDTO() {
 		final String personCPF = "12345678923";
 		final String personName = "person1";
@@ -0,0 +1,56 @@
+package com.webcarros.config;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.webcarros.storage.PersonStorageWarmer;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsConfigurationTest {
+	
+	@Autowired MockMvc mockMvc;
+	
+	@Test
+	void testPrometheusScrape() throws Exception {
+		//Arrange
+		this.mockMvc.perform(asyncDispatch(this.mockMvc.perform(get("/api/persons")).andReturn()));
+		this.mockMvc.perform(asyncDispatch(this.mockMvc.perform(get("/api/persons/12345678909")).andReturn()));
+		
+		//Act
+		this.mockMvc.perform(get("/actuator/prometheus"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().string(containsString("http_server_requests_seconds_bucket{application=\"web-carros\",exception=\"PersonNotFoundException\",method=\"GET\",outcome=\"CLIENT_ERROR\",status=\"404\",uri=\"/api/persons/{id}\"")))
+			.andExpect(content().string(containsString("person_service_seconds_bucket{application=\"web-carros\",class=\"com.webcarros.services.PersonService\",exception=\"none\",method=\"listPage\"")))
+			.andExpect(content().string(containsString("hikaricp_connections_active")))
+			.andExpect(content().string(containsString("executor_queued_tasks{application=\"web-carros\",name=\"personExecutor\",}")))
+			.andExpect(content().string(containsString("hibernate_statements_total")))
+			.andExpect(content().string(containsString("hibernate_cache_region_requests_total{application=\"web-carros\",region=\"default-query-results-region\",result=\"miss\",}")));
+	}
+	
+	@Test
+	void testWarmUpRequestsAreNotTimed() throws Exception {
+		//Arrange
+		this.mockMvc.perform(get("/actuator/health").header(PersonStorageWarmer.WARM_UP_HEADER, "true"));
+		
+		//Act
+		this.mockMvc.perform(get("/actuator/prometheus"))
+			//Assert
+			.andExpect(content().string(not(containsString("uri=\"/actuator/health\""))));
+		
+		this.mockMvc.perform(get("/actuator/health"));
+		this.mockMvc.perform(get("/actuator/prometheus"))
+			.andExpect(content().string(containsString("uri=\"/actuator/health\"")));
+	}
+}
@@ -0,0 +1,95 @@
+package com.webcarros.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Snapshot of the spec springfox builds, served as the static
+ * {@code /openapi.json} when springfox is off. After an API change regenerate
+ * it with {@code mvn test -Dtest=OpenApiSpecTest -Dwebcarros.openapi.write=true}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles(SwaggerConfiguration.DOCS_PROFILE)
+public class OpenApiSpecTest {
+	
+	static final String SPEC_RESOURCE = "static/openapi.json";
+	
+	static final Path SPEC_SOURCE = Paths.get("src/main/resources", SPEC_RESOURCE);
+	
+	@Autowired MockMvc mockMvc;
+	
+	@Autowired ObjectMapper objectMapper;
+	
+	@Autowired @Qualifier("requestMappingHandlerMapping") RequestMappingHandlerMapping handlerMapping;
+	
+	@Test
+	void testStaticSpecMatchesTheGeneratedOne() throws Exception {
+		//Arrange
+		final String body = this.mockMvc.perform(get("/v3/api-docs"))
+			.andExpect(status().isOk())
+			.andReturn().getResponse().getContentAsString();
+		final ObjectNode generated = (ObjectNode) objectMapper.readTree(body);
+		// the server is inferred from the request, clients resolve the paths against the spec url
+		generated.remove("servers");
+		if (Boolean.getBoolean("webcarros.openapi.write")) {
+			Files.write(SPEC_SOURCE, objectMapper.writer(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(generated));
+		}
+		
+		//Act
+		final ObjectNode committed;
+		try (InputStream in = Files.newInputStream(SPEC_SOURCE)) {
+			committed = (ObjectNode) objectMapper.readTree(in);
+		}
+		
+		//Assert
+		assertThat(committed)
+			.as("%s is out of date, regenerate it with -Dwebcarros.openapi.write=true", SPEC_SOURCE)
+			.isEqualTo(generated);
+	}
+	
+	/**
+	 * Springfox merges two handlers of the same path and method into one
+	 * operation, the spec would silently leave one of them out.
+	 */
+	@Test
+	void testEveryHandlerHasItsOwnOperation() throws Exception {
+		//Arrange
+		final long handlers = handlerMapping.getHandlerMethods().values().stream()
+				.filter(handler -> handler.getBeanType().getPackageName().startsWith("com.webcarros"))
+				.count();
+		
+		//Act
+		final JsonNode paths;
+		try (InputStream in = Files.newInputStream(SPEC_SOURCE)) {
+			paths = objectMapper.readTree(in).get("paths");
+		}
+		long operations = 0;
+		for (final JsonNode path : paths) {
+			operations += path.size();
+		}
+		
+		//Assert
+		assertThat(operations).isEqualTo(handlers);
+	}
+}
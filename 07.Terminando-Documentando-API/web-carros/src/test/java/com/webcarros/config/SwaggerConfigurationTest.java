@@ -0,0 +1,44 @@
+package com.webcarros.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SwaggerConfigurationTest {
+	
+	@Autowired MockMvc mockMvc;
+	
+	@Autowired ApplicationContext context;
+	
+	@Test
+	void testSpringfoxIsOffWithoutTheDocsProfile() throws Exception {
+		//Assert
+		assertThat(context.getBeanNamesForType(DocumentationPluginsBootstrapper.class)).isEmpty();
+		this.mockMvc.perform(get("/v3/api-docs"))
+			.andExpect(status().isNotFound());
+	}
+	
+	@Test
+	void testStaticSpecIsServed() throws Exception {
+		//Act
+		this.mockMvc.perform(get("/openapi.json"))
+			//Assert
+			.andExpect(status().isOk())
+			.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+			.andExpect(jsonPath("$.paths['/api/persons/{id}']").exists());
+	}
+}
@@ -0,0 +1,264 @@
+package com.webcarros.domain.repositories;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonDTO;
+
+@SpringBootTest
+public class PersonRepositoryTest {
+	
+	@Autowired PersonRepository personRepository;
+	
+	@Autowired CacheManager cacheManager;
+	
+	@Autowired JdbcTemplate jdbcTemplate;
+	
+	@Autowired EntityManagerFactory entityManagerFactory;
+	
+	private Cache cache;
+	
+	private Statistics statistics;
+	
+	@BeforeEach
+	void setUp() {
+		cache = cacheManager.getCache(PersonRepository.CACHE_NAME);
+		cache.clear();
+		personRepository.deleteAllInBatch();
+		entityManagerFactory.getCache().evictAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+	
+	@Test
+	void testPersonIsNotInSecondLevelCache() {
+		//Arrange
+		final Person person = personRepository.save(new Person("12345678901", "UBUNTU", "email@email.com", null));
+		
+		//Act
+		personRepository.findById(person.getCpf());
+		
+		//Assert
+		assertThat(entityManagerFactory.getCache().contains(Person.class, person.getCpf())).isFalse();
+		assertThat(statistics.getSecondLevelCachePutCount()).isZero();
+	}
+	
+	@Test
+	void testPageQueryIsCachedUntilAWrite() {
+		//Arrange
+		personRepository.save(new Person("12345678901", "UBUNTU", "email@email.com", null));
+		final PageRequest page = PageRequest.of(0, 10, Sort.by("cpf"));
+		personRepository.findByCpfGreaterThan("", page);
+		
+		//Act
+		personRepository.findByCpfGreaterThan("", page);
+		personRepository.insertAll(List.of(new Person("12345678902", "DEBIAN", "debian@debian.org", null, 1L)));
+		final Slice<PersonDTO> ret = personRepository.findByCpfGreaterThan("", page);
+		
+		//Assert
+		assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+		assertThat(ret.getContent()).extracting(PersonDTO::getCpf).containsExactly("12345678901", "12345678902");
+	}
+	
+	@Test
+	void testFindDTOByCpfIsCached() {
+		//Arrange
+		final Person person = new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		personRepository.save(person);
+		
+		//Act
+		personRepository.findDTOByCpf(person.getCpf());
+		
+		//Assert
+		assertThat(cache.get(person.getCpf())).isNotNull();
+	}
+	
+	@Test
+	void testFindByCpfGreaterThanReturnsProjectedPage() {
+		//Arrange
+		personRepository.save(new Person("12345678903", "DEBIAN", "debian@debian.org", null));
+		personRepository.save(new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01")));
+		personRepository.save(new Person("12345678902", "CENTOS", "centos@centos.com.br", null));
+		
+		//Act
+		final Slice<PersonDTO> ret = personRepository.findByCpfGreaterThan("12345678901", PageRequest.of(0, 1, Sort.by("cpf")));
+		
+		//Assert
+		assertThat(ret.getContent()).containsExactly(new PersonDTO("12345678902", "CENTOS", "centos@centos.com.br", null, 0L));
+		assertThat(ret.hasNext()).isTrue();
+	}
+	
+	@Test
+	void testSearchByNameEscapesWildcards() {
+		//Arrange
+		personRepository.save(new Person("12345678901", "ANA_MARIA", "ana@email.com", null));
+		personRepository.save(new Person("12345678902", "ANAXMARIA", "anax@email.com", null));
+		personRepository.save(new Person("12345678903", "ANA_LUIZA", "luiza@email.com", null));
+		
+		//Act
+		final Slice<PersonDTO> ret = personRepository.searchByName("ANA\\_M%", null, PageRequest.of(0, 10, Sort.by("name")));
+		final Slice<PersonDTO> narrowed = personRepository.searchByName("ANA\\_%", "luiza%", PageRequest.of(0, 10, Sort.by("name")));
+		
+		//Assert
+		assertThat(ret.getContent()).extracting(PersonDTO::getCpf).containsExactly("12345678901");
+		assertThat(narrowed.getContent()).extracting(PersonDTO::getCpf).containsExactly("12345678903");
+	}
+	
+	@Test
+	void testSearchesUseIndexes() {
+		//Act
+		final String byName = jdbcTemplate.queryForObject("explain select * from person where name like 'ANA%'", String.class);
+		final String byEmail = jdbcTemplate.queryForObject("explain select * from person where email like 'ana%'", String.class);
+		
+		//Assert
+		assertThat(byName).containsIgnoringCase("idx_person_name");
+		assertThat(byEmail).containsIgnoringCase("idx_person_email");
+	}
+	
+	@Test
+	void testMissingPersonIsNotCached() {
+		//Act
+		personRepository.findDTOByCpf("12345678901");
+		
+		//Assert
+		assertThat(cache.get("12345678901")).isNull();
+	}
+	
+	@Test
+	void testSaveEvictsCachedPerson() {
+		//Arrange
+		final Person person = new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		final Person saved = personRepository.save(person);
+		personRepository.findDTOByCpf(person.getCpf());
+		
+		//Act
+		personRepository.save(new Person(person.getCpf(), "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"), saved.getVersion()));
+		
+		//Assert
+		assertThat(cache.get(person.getCpf())).isNull();
+		assertThat(personRepository.findDTOByCpf(person.getCpf()).get().getName()).isEqualTo("CENTOS");
+	}
+	
+	@Test
+	void testDeleteEvictsCachedPerson() {
+		//Arrange
+		final Person person = new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		personRepository.save(person);
+		personRepository.findDTOByCpf(person.getCpf());
+		
+		//Act
+		final int deleted = personRepository.deleteByCpf(person.getCpf());
+		
+		//Assert
+		assertThat(deleted).isEqualTo(1);
+		assertThat(cache.get(person.getCpf())).isNull();
+		assertThat(personRepository.findDTOByCpf(person.getCpf())).isEmpty();
+	}
+	
+	@Test
+	void testInsertAllLeavesExistingCPFsAlone() {
+		//Arrange
+		final Person existing = new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		personRepository.save(existing);
+		final Person taken = new Person(existing.getCpf(), "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"), 1L);
+		final Person created = new Person("12345678902", "DEBIAN", "debian@debian.org", null, 2L);
+		final Person repeated = new Person(created.getCpf(), "FEDORA", "fedora@fedora.org", null, 3L);
+		
+		//Act
+		final boolean[] ret = personRepository.insertAll(List.of(taken, created, repeated));
+		
+		//Assert
+		assertThat(ret).containsExactly(false, true, false);
+		assertThat(personRepository.findAll()).containsExactlyInAnyOrder(existing, created);
+		assertThat(personRepository.findById(existing.getCpf()).get().getVersion()).isEqualTo(0L);
+		assertThat(personRepository.findById(created.getCpf()).get().getVersion()).isEqualTo(2L);
+	}
+	
+	@Test
+	void testUpdateDetails() {
+		//Arrange
+		final Person person = new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		personRepository.save(person);
+		personRepository.findDTOByCpf(person.getCpf());
+		
+		//Act
+		final int ret = personRepository.updateDetails(person.getCpf(), "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"), null, 7L);
+		
+		//Assert
+		assertThat(ret).isEqualTo(1);
+		assertThat(cache.get(person.getCpf())).isNull();
+		assertThat(personRepository.findById(person.getCpf()).get().getVersion()).isEqualTo(7L);
+		assertThat(personRepository.findById(person.getCpf()).get())
+				.isEqualTo(new Person(person.getCpf(), "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01")));
+	}
+	
+	@Test
+	void testUpdateDetailsWithVersion() {
+		//Arrange
+		final Person person = personRepository.save(new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01")));
+		
+		//Act
+		final int current = personRepository.updateDetails(person.getCpf(), "CENTOS", "centos@centos.com.br", null, person.getVersion(), 7L);
+		final int stale = personRepository.updateDetails(person.getCpf(), "DEBIAN", "debian@debian.org", null, person.getVersion(), 8L);
+		
+		//Assert
+		assertThat(current).isEqualTo(1);
+		assertThat(stale).isEqualTo(0);
+		assertThat(personRepository.findDTOByCpf(person.getCpf()).get().getName()).isEqualTo("CENTOS");
+	}
+	
+	@Test
+	void testUpdateDetailsNeverReplacesALaterVersion() {
+		//Arrange
+		final Person person = personRepository.save(new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01")));
+		personRepository.updateDetails(person.getCpf(), "CENTOS", "centos@centos.com.br", null, null, 8L);
+		
+		//Act
+		final int ret = personRepository.updateDetails(person.getCpf(), "DEBIAN", "debian@debian.org", null, null, 7L);
+		
+		//Assert
+		assertThat(ret).isEqualTo(0);
+		assertThat(personRepository.findDTOByCpf(person.getCpf()).get().getVersion()).isEqualTo(8L);
+	}
+	
+	@Test
+	void testUpdateDetailsOfUnknownPerson() {
+		//Act
+		final int ret = personRepository.updateDetails("12345678901", "CENTOS", "centos@centos.com.br", null, null, 7L);
+		
+		//Assert
+		assertThat(ret).isEqualTo(0);
+	}
+	
+	@Test
+	void testSaveNewPersonWithExistingCPF() {
+		//Arrange
+		personRepository.save(new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01")));
+		
+		//Act
+		//Assert
+		assertThrows(DataIntegrityViolationException.class,
+				() -> personRepository.save(new Person("12345678901", "CENTOS", "centos@centos.com.br", null)));
+	}
+}
@@ -0,0 +1,78 @@
+package com.webcarros.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.webcarros.dto.PersonDTO;
+
+@JsonTest
+public class PersonDTOSerializerTest {
+	
+	@Autowired ObjectMapper objectMapper;
+	
+	/**
+	 * Serializes with the bean serializer, as before PersonDTOSerializer, and
+	 * is configured like Spring Boot's default ObjectMapper.
+	 */
+	private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.build();
+	
+	@Test
+	void testSerializerIsRegistered() throws Exception {
+		//Assert
+		assertThat(objectMapper.getSerializerProviderInstance().findValueSerializer(PersonDTO.class))
+			.isInstanceOf(PersonDTOSerializer.class);
+	}
+	
+	@Test
+	void testSameBytesAsTheBeanSerializer() throws Exception {
+		//Arrange
+		final List<PersonDTO> persons = List.of(
+				new PersonDTO("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("1993-08-16"), 3L),
+				new PersonDTO("52998224725", "JOSÉ \"ZÉ\" D'ÁVILA \\ \t\u0001 🚗", "jose@email.com.br", LocalDate.parse("0001-01-09")),
+				new PersonDTO("11144477735", null, null, null),
+				new PersonDTO(null, "", "", LocalDate.parse("9999-12-31")),
+				new PersonDTO("00000000191", "BC", "bc@bc.gov.br", LocalDate.of(10000, 1, 1)),
+				new PersonDTO("00000000272", "BC", "bc@bc.gov.br", LocalDate.of(-1, 2, 28)));
+		
+		//Act
+		final byte[] bytes = objectMapper.writeValueAsBytes(persons);
+		final String text = objectMapper.writeValueAsString(persons);
+		final String pretty = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(persons.get(0));
+		
+		//Assert
+		assertThat(bytes).isEqualTo(beanMapper.writeValueAsBytes(persons));
+		assertThat(text).isEqualTo(beanMapper.writeValueAsString(persons));
+		assertThat(pretty).isEqualTo(beanMapper.writerWithDefaultPrettyPrinter().writeValueAsString(persons.get(0)));
+	}
+	
+	@Test
+	void testSameBytesAsTheBeanSerializerInBinaryFormats() throws Exception {
+		//Arrange
+		final List<PersonDTO> persons = List.of(
+				new PersonDTO("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("1993-08-16"), 3L),
+				new PersonDTO("52998224725", "JOSÉ \"ZÉ\" D'ÁVILA 🚗", "jose@email.com.br", LocalDate.parse("0001-01-09")),
+				new PersonDTO("11144477735", null, null, null));
+		
+		for (final Jackson2ObjectMapperBuilder builder : List.of(Jackson2ObjectMapperBuilder.cbor(), Jackson2ObjectMapperBuilder.smile())) {
+			builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+			final byte[] beanBytes = builder.build().writeValueAsBytes(persons);
+			
+			//Act
+			final byte[] bytes = builder.serializers(new PersonDTOSerializer()).build().writeValueAsBytes(persons);
+			
+			//Assert
+			assertThat(bytes).isEqualTo(beanBytes);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.webcarros.mappers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonDTO;
+
+public class PersonMapperTest {
+	
+	private final PersonMapper personMapper = new PersonMapperImpl();
+	
+	@Test
+	void testToDTO() {
+		//Arrange
+		final Person person = new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		
+		//Act
+		final PersonDTO ret = personMapper.toDTO(person);
+		
+		//Assert
+		assertThat(ret).isEqualTo(new PersonDTO("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01")));
+	}
+	
+	@Test
+	void testToEntity() {
+		//Arrange
+		final PersonDTO dto = new PersonDTO("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		
+		//Act
+		final Person ret = personMapper.toEntity(dto);
+		
+		//Assert
+		assertThat(ret).isEqualTo(new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01")));
+	}
+	
+	@Test
+	void testNullMapsToNull() {
+		//Act
+		//Assert
+		assertThat(personMapper.toDTO(null)).isNull();
+		assertThat(personMapper.toEntity(null)).isNull();
+	}
+}
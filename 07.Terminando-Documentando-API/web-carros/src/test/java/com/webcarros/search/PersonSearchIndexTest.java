@@ -0,0 +1,246 @@
+package com.webcarros.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.dto.PersonDTO;
+
+public class PersonSearchIndexTest {
+
+	@TempDir Path indexDir;
+
+	private PersonSearchIndex index;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		index = new PersonSearchIndex(indexDir);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		index.close();
+	}
+
+	@Test
+	void testSearchToleratesTyposAndAccents() throws IOException {
+		//Arrange
+		index.index(new Person("12345678909", "JOSÉ DA SILVA", "jose@email.com", LocalDate.parse("2000-01-01"), 2L));
+		index.index(new Person("52998224725", "MARIA SOUZA", "maria@email.com", null, 1L));
+		index.refresh();
+
+		//Act
+		final List<PersonDTO> ret = index.search("jose silvva", 10);
+
+		//Assert
+		assertThat(ret).containsExactly(new PersonDTO("12345678909", "JOSÉ DA SILVA", "jose@email.com", LocalDate.parse("2000-01-01"), 2L));
+	}
+
+	@Test
+	void testExactMatchesRankFirst() throws IOException {
+		//Arrange
+		index.index(new Person("12345678909", "MARIO SOUZA", "mario@email.com", null, 1L));
+		index.index(new Person("52998224725", "MARIA SOUZA", "maria@email.com", null, 1L));
+		index.refresh();
+
+		//Act
+		final List<PersonDTO> ret = index.search("maria", 10);
+
+		//Assert
+		assertThat(ret).extracting(PersonDTO::getCpf).containsExactly("52998224725", "12345678909");
+	}
+
+	@Test
+	void testIndexReplacesAndDeleteRemoves() throws IOException {
+		//Arrange
+		index.index(new Person("12345678909", "MARIA SOUZA", "maria@email.com", null, 1L));
+		index.index(new Person("12345678909", "ANA SOUZA", "ana@email.com", null, 2L));
+		index.index(new Person("52998224725", "JOANA SOUZA", "joana@email.com", null, 1L));
+
+		//Act
+		index.delete("52998224725", 2L);
+		index.refresh();
+
+		//Assert
+		assertThat(index.search("souza", 10)).extracting(PersonDTO::getName).containsExactly("ANA SOUZA");
+	}
+
+	@Test
+	void testOlderWritesAreSkipped() throws IOException {
+		//Arrange
+		index.index(new Person("12345678909", "ANA SOUZA", "ana@email.com", null, 2L));
+		index.index(new Person("52998224725", "JOANA SOUZA", "joana@email.com", null, 1L));
+		index.delete("52998224725", 3L);
+
+		//Act
+		index.index(new Person("12345678909", "MARIA SOUZA", "maria@email.com", null, 1L));
+		index.index(new Person("52998224725", "JOANA SOUZA", "joana@email.com", null, 2L));
+		index.refresh();
+
+		//Assert
+		assertThat(index.search("souza", 10)).extracting(PersonDTO::getName).containsExactly("ANA SOUZA");
+	}
+
+	@Test
+	void testDeletedPersonCanBeCreatedAgain() throws IOException {
+		//Arrange
+		index.index(new Person("12345678909", "MARIA SOUZA", "maria@email.com", null, 1L));
+		index.delete("12345678909", 2L);
+
+		//Act
+		index.index(new Person("12345678909", "ANA SOUZA", "ana@email.com", null, 3L));
+		index.refresh();
+
+		//Assert
+		assertThat(index.search("souza", 10)).extracting(PersonDTO::getName).containsExactly("ANA SOUZA");
+	}
+
+	@Test
+	void testRacingUpdatesAndDeletesKeepTheLatestWrite() throws Exception {
+		//Arrange
+		final int persons = 200;
+		final List<Runnable> writes = new ArrayList<>();
+		for (int i = 0; i < persons; i++) {
+			final String cpf = String.format("%011d", i);
+			writes.add(() -> index.index(new Person(cpf, "MARIA SOUZA", "maria@email.com", null, 1L)));
+			writes.add(() -> index.index(new Person(cpf, "ANA SOUZA", "ana@email.com", null, 2L)));
+			// every other person is deleted last, the others are deleted then updated again
+			if (i % 2 == 0) {
+				writes.add(() -> index.delete(cpf, 3L));
+			} else {
+				writes.add(() -> index.delete(cpf, 3L));
+				writes.add(() -> index.index(new Person(cpf, "JOANA SOUZA", "joana@email.com", null, 4L)));
+			}
+		}
+		Collections.shuffle(writes, new Random(42));
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		//Act
+		try {
+			for (final Future<?> write : executor.invokeAll(writes.stream().map(Executors::callable).collect(Collectors.toList()))) {
+				write.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+		index.refresh();
+
+		//Assert
+		assertThat(index.search("souza", persons * 2))
+				.hasSize(persons / 2)
+				.allSatisfy(person -> assertThat(person.getName()).isEqualTo("JOANA SOUZA"));
+	}
+
+	@Test
+	void testRebuildReplacesTheIndex() throws IOException {
+		//Arrange
+		index.index(new Person("12345678909", "MARIA SOUZA", "maria@email.com", null, 1L));
+
+		//Act
+		final long count = index.rebuild(action -> action.accept(new Person("52998224725", "ANA SOUZA", "ana@email.com", null, 1L)));
+
+		//Assert
+		assertThat(count).isEqualTo(1);
+		assertThat(index.search("souza", 10)).extracting(PersonDTO::getCpf).containsExactly("52998224725");
+	}
+
+	@Test
+	void testSearchesDuringRebuildSeeEveryPerson() throws IOException {
+		//Arrange
+		final List<Person> persons = List.of(
+				new Person("12345678909", "MARIA SOUZA", "maria@email.com", null, 1L),
+				new Person("52998224725", "ANA SOUZA", "ana@email.com", null, 1L),
+				new Person("11144477735", "JOANA SOUZA", "joana@email.com", null, 1L));
+		index.indexAll(persons);
+		index.refresh();
+		final List<Integer> found = new ArrayList<>();
+
+		//Act
+		index.rebuild(action -> persons.forEach(person -> {
+			action.accept(person);
+			try {
+				index.refresh();
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			found.add(index.search("souza", 10).size());
+		}));
+
+		//Assert
+		assertThat(found).containsExactly(3, 3, 3);
+		assertThat(index.search("souza", 10)).hasSize(3);
+	}
+
+	@Test
+	void testRebuildKeepsWritesMadeWhileItRuns() throws IOException {
+		//Arrange
+		index.index(new Person("12345678909", "MARIA SOUZA", "maria@email.com", null, 1L));
+		index.index(new Person("52998224725", "JOANA SOUZA", "joana@email.com", null, 1L));
+		index.refresh();
+
+		//Act
+		index.rebuild(action -> {
+			// both rows were read by the rebuild before these writes reached the index
+			index.index(new Person("12345678909", "ANA SOUZA", "ana@email.com", null, 2L));
+			index.delete("52998224725", 2L);
+			action.accept(new Person("12345678909", "MARIA SOUZA", "maria@email.com", null, 1L));
+			action.accept(new Person("52998224725", "JOANA SOUZA", "joana@email.com", null, 1L));
+		});
+
+		//Assert
+		assertThat(index.search("souza", 10)).extracting(PersonDTO::getName).containsExactly("ANA SOUZA");
+	}
+
+	@Test
+	void testRebuildRemovesPersonsLeftOnDisk() throws IOException {
+		//Arrange
+		index.index(new Person("12345678909", "MARIA SOUZA", "maria@email.com", null, 1L));
+		index.commit();
+		index.close();
+		index = new PersonSearchIndex(indexDir);
+
+		//Act
+		index.rebuild(action -> action.accept(new Person("52998224725", "ANA SOUZA", "ana@email.com", null, 1L)));
+
+		//Assert
+		assertThat(index.search("souza", 10)).extracting(PersonDTO::getCpf).containsExactly("52998224725");
+	}
+
+	@Test
+	void testCommittedWritesSurviveReopening() throws IOException {
+		//Arrange
+		index.index(new Person("12345678909", "MARIA SOUZA", "maria@email.com", null, 1L));
+		index.commit();
+		index.close();
+
+		//Act
+		index = new PersonSearchIndex(indexDir);
+
+		//Assert
+		assertThat(index.search("maria", 10)).hasSize(1);
+	}
+
+	@Test
+	void testBlankSearch() {
+		//Act
+		//Assert
+		assertThat(index.search(" - ", 10)).isEmpty();
+	}
+}
@@ -0,0 +1,60 @@
+package com.webcarros.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.domain.repositories.PersonRepository;
+
+/**
+ * Runs against the real database, since the persons cache can only go stale
+ * between a write and its commit.
+ */
+@SpringBootTest
+public class PersonServiceCacheTest {
+
+	@Autowired PersonService personService;
+
+	@Autowired PersonRepository personRepository;
+
+	@Autowired TransactionTemplate transactionTemplate;
+
+	@Autowired CacheManager cacheManager;
+
+	private Cache cache;
+
+	@BeforeEach
+	void setUp() {
+		cache = cacheManager.getCache(PersonRepository.CACHE_NAME);
+		cache.clear();
+		personRepository.deleteAllInBatch();
+	}
+
+	@Test
+	void testRemoveAllIsNotUndoneByAReadBeforeTheCommit() {
+		//Arrange
+		personRepository.save(new Person("12345678909", "UBUNTU", "ubuntu@ubuntu.com", LocalDate.parse("2000-01-01")));
+
+		//Act
+		transactionTemplate.executeWithoutResult(status -> {
+			personService.removeAll(List.of("123.456.789-09"));
+			// the delete is not committed yet, so another thread still reads the person and caches it
+			CompletableFuture.runAsync(() -> assertThat(personRepository.findDTOByCpf("12345678909")).isPresent()).join();
+		});
+
+		//Assert
+		assertThat(cache.get("12345678909")).isNull();
+		assertThat(personRepository.findDTOByCpf("12345678909")).isEmpty();
+	}
+}
@@ -5,39 +5,82 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.webcarros.domain.entities.Person;
 import com.webcarros.domain.repositories.PersonRepository;
+import com.webcarros.dto.PersonBatchResultDTO;
+import com.webcarros.dto.PersonBatchResultDTO.Status;
+import com.webcarros.dto.PersonDTO;
 import com.webcarros.exceptions.CPFBadFormatedException;
+import com.webcarros.exceptions.InvalidSearchException;
+import com.webcarros.exceptions.PersonAlreadyExistsException;
 import com.webcarros.exceptions.PersonNotFoundException;
+import com.webcarros.exceptions.PersonVersionConflictException;
+import com.webcarros.search.PersonSearchIndex;
 
 @ExtendWith(MockitoExtension.class)
 public class PersonServiceTest {
 	@InjectMocks private PersonService personService;
 	@Mock private PersonRepository personRepository;
+	@Mock private EntityManager entityManager;
+	@Mock private TransactionTemplate transactionTemplate;
+	@Mock private PersonSearchIndex personSearchIndex;
+	@Mock private CacheManager cacheManager;
+	@Spy private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
 	
 	@Test
 	public void testListPersons() {
 		
 		//Arrange
-		final Person person1 = new Person("123456789", "NAME-1", "email-1@email.com.br", LocalDate.parse("2000-01-01"));
-		final Person person2 = new Person("987654321", "NAME-2", "email-2@email.com.br", LocalDate.parse("2000-01-01"));
-		when(personRepository.findAll()).thenReturn(List.of(person1, person2));
+		final PersonDTO person1 = new PersonDTO("123456789", "NAME-1", "email-1@email.com.br", LocalDate.parse("2000-01-01"));
+		final PersonDTO person2 = new PersonDTO("987654321", "NAME-2", "email-2@email.com.br", LocalDate.parse("2000-01-01"));
+		when(personRepository.findByCpfGreaterThan(eq(""), any())).thenReturn(new SliceImpl<>(List.of(person1, person2)));
 
 		//Act
-		final List<Person> ret = personService.listAll();		
+		final List<PersonDTO> ret = personService.listPage(null, PersonService.DEFAULT_PAGE_SIZE).getContent();		
 		
 		//Assert
 		assertThat(ret.size()).isEqualTo(2);
@@ -45,30 +88,174 @@ public class PersonServiceTest {
 		assertThat(ret.get(1)).isEqualTo(person2);
 	}
 	
+	@Test
+	void testListPersonsAfterCursor() {
+		//Arrange
+		final Slice<PersonDTO> empty = new SliceImpl<>(List.of());
+		when(personRepository.findByCpfGreaterThan(any(), any())).thenReturn(empty);
+		
+		//Act
+		personService.listPage("123.456.789-09", 10);
+		
+		//Assert
+		verify(personRepository).findByCpfGreaterThan("12345678909", PageRequest.of(0, 10, Sort.by("cpf")));
+	}
+	
+	@Test
+	void testListPersonsPageSizeIsCapped() {
+		//Arrange
+		final Slice<PersonDTO> empty = new SliceImpl<>(List.of());
+		when(personRepository.findByCpfGreaterThan(any(), any())).thenReturn(empty);
+		
+		//Act
+		personService.listPage(null, Integer.MAX_VALUE);
+		
+		//Assert
+		verify(personRepository).findByCpfGreaterThan("", PageRequest.of(0, PersonService.MAX_PAGE_SIZE, Sort.by("cpf")));
+	}
+	
+	@Test
+	void testSearchByNamePrefix() {
+		//Arrange
+		final Slice<PersonDTO> empty = new SliceImpl<>(List.of());
+		when(personRepository.searchByName(any(), any(), any())).thenReturn(empty);
+		
+		//Act
+		personService.search("UB_N%", "ub", 10);
+		
+		//Assert
+		verify(personRepository).searchByName("UB\\_N\\%%", "ub%", PageRequest.of(0, 10, Sort.by("name", "cpf")));
+	}
+	
+	@Test
+	void testSearchByEmailPrefix() {
+		//Arrange
+		final Slice<PersonDTO> empty = new SliceImpl<>(List.of());
+		when(personRepository.searchByEmail(any(), any())).thenReturn(empty);
+		
+		//Act
+		personService.search("", "ubuntu@", Integer.MAX_VALUE);
+		
+		//Assert
+		verify(personRepository).searchByEmail("ubuntu@%", PageRequest.of(0, PersonService.MAX_PAGE_SIZE, Sort.by("email", "cpf")));
+	}
+	
+	@Test
+	void testSearchWithoutPrefix() {
+		//Act
+		//Assert
+		assertThrows(InvalidSearchException.class, () -> personService.search(null, "", 10));
+		verifyNoInteractions(personRepository);
+	}
+	
+	@Test
+	void testFullTextSearchOnlyReadsTheIndex() {
+		//Arrange
+		final List<PersonDTO> hits = List.of(new PersonDTO("12345678909", "UBUNTU", "email@email.com", null));
+		when(personSearchIndex.search("ubuntu", PersonService.MAX_PAGE_SIZE)).thenReturn(hits);
+		
+		//Act
+		final List<PersonDTO> ret = personService.fullTextSearch("ubuntu", Integer.MAX_VALUE);
+		
+		//Assert
+		assertThat(ret).isEqualTo(hits);
+		verifyNoInteractions(personRepository);
+	}
+	
+	@Test
+	void testExportDetachesEveryPerson() {
+		//Arrange
+		final Person person1 = new Person("123456789", "NAME-1", "email-1@email.com.br", LocalDate.parse("2000-01-01"));
+		final Person person2 = new Person("987654321", "NAME-2", "email-2@email.com.br", LocalDate.parse("2000-01-01"));
+		when(personRepository.streamAllBy()).thenReturn(Stream.of(person1, person2));
+		final List<Person> exported = new ArrayList<>();
+		
+		//Act
+		personService.exportAll(exported::add);
+		
+		//Assert
+		assertThat(exported).containsExactly(person1, person2);
+		verify(entityManager).detach(person1);
+		verify(entityManager).detach(person2);
+	}
+	
 	@Test
 	void testSaveUserAsInformed() {		
 		//Arrange
-		final Person person = new Person("12345678901", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
-		when(personRepository.save(any(Person.class))).thenAnswer(i -> i.getArgument(0));
+		final Person person = new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		when(personRepository.insertAll(List.of(person))).thenReturn(new boolean[] {true});
 				
 		//Act
 		final Person ret = personService.save(person);
 		
 		//Assert
 		assertThat(person).isEqualTo(ret);
+		assertThat(ret.getVersion()).isNotNull();
+		verify(personSearchIndex).index(ret);
+	}
+	
+	@Test
+	void testSaveExistingUser() {		
+		//Arrange
+		final Person person = new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		when(personRepository.insertAll(List.of(person))).thenReturn(new boolean[] {false});
+		
+		//Act
+		//Assert
+		final PersonAlreadyExistsException ex = assertThrows(PersonAlreadyExistsException.class, () -> personService.save(person));
+		assertThat(ex.getMessage()).contains("12345678909");
+		verifyNoInteractions(personSearchIndex);
+	}
+	
+	@Test
+	void testWritesMoveDataVersionForward() {		
+		//Arrange
+		final Person person = new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		when(personRepository.insertAll(any())).thenReturn(new boolean[] {true});
+		when(personRepository.updateDetails(any(), any(), any(), any(), any(), anyLong())).thenReturn(1);
+		when(personRepository.deleteByCpf(person.getCpf())).thenReturn(1);
+		final long before = personService.getDataVersion();
+		
+		//Act
+		personService.save(person);
+		final long afterSave = personService.getDataVersion();
+		personService.update(person.getCpf(), person, null);
+		final long afterUpdate = personService.getDataVersion();
+		personService.remove(person.getCpf());
+		
+		//Assert
+		assertThat(afterSave).isGreaterThan(before);
+		assertThat(afterUpdate).isGreaterThan(afterSave);
+		assertThat(personService.getDataVersion()).isGreaterThan(afterUpdate);
+	}
+	
+	@Test
+	void testRecreatedPersonNeverGetsAnOldVersion() {		
+		//Arrange
+		final Person person = new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		when(personRepository.insertAll(any())).thenReturn(new boolean[] {true});
+		when(personRepository.deleteByCpf(person.getCpf())).thenReturn(1);
+		final long created = personService.save(person).getVersion();
+		personService.remove(person.getCpf());
+		
+		//Act
+		final Person ret = personService.save(new Person("12345678909", "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01")));
+		
+		//Assert
+		assertThat(ret.getVersion()).isGreaterThan(created);
 	}
 	
 	@Test
 	void testRemoveDotsAndTracesFromCPFThanSave() {		
 		//Arrange
-		final Person person = new Person("123.456.789-01", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
-		when(personRepository.save(any(Person.class))).thenAnswer(i -> i.getArgument(0));
+		final Person person = new Person("123.456.789-09", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		when(personRepository.insertAll(any())).thenReturn(new boolean[] {true});
 				
 		//Act
 		final Person ret = personService.save(person);
 		
 		//Assert
-		assertThat(ret.getCpf()).isEqualTo("12345678901");
+		assertThat(ret.getCpf()).isEqualTo("12345678909");
 	}
 	
 	@Test
@@ -84,15 +271,112 @@ public class PersonServiceTest {
 		assertThat(ex.getMessage()).contains(cpf);
 	}
 	
+	@Test
+	void testSaveAllReportsEachItem() {
+		//Arrange
+		final Person valid = new Person("123.456.789-09", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		final Person badCPF = new Person("123.456.789-01", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		final Person badEmail = new Person("529.982.247-25", "UBUNTU", "not-an-email", LocalDate.parse("2000-01-01"));
+		runTransactionsInline();
+		
+		//Act
+		final List<PersonBatchResultDTO> ret = personService.saveAll(List.of(valid, badCPF, badEmail));
+		
+		//Assert
+		assertThat(ret).extracting(PersonBatchResultDTO::getStatus).containsExactly(Status.SAVED, Status.INVALID, Status.INVALID);
+		assertThat(ret.get(0).getCpf()).isEqualTo("12345678909");
+		assertThat(ret.get(1).getMessage()).contains("123.456.789-01");
+		assertThat(ret.get(2).getMessage()).startsWith("email");
+		verify(personRepository).insertAll(List.of(valid));
+		verify(personSearchIndex).indexAll(List.of(valid));
+		assertThat(valid.getVersion()).isNotNull();
+	}
+	
+	@Test
+	void testSaveAllWritesInChunks() {
+		//Arrange
+		final Person person = new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		final List<Person> persons = IntStream.range(0, PersonService.BATCH_CHUNK_SIZE * 2 + 1)
+				.mapToObj(i -> person)
+				.collect(Collectors.toList());
+		runTransactionsInline();
+		
+		//Act
+		final List<PersonBatchResultDTO> ret = personService.saveAll(persons);
+		
+		//Assert
+		assertThat(ret).hasSize(persons.size()).allMatch(r -> r.getStatus() == Status.SAVED);
+		verify(transactionTemplate, times(3)).execute(any());
+		verify(personRepository, times(3)).insertAll(any());
+	}
+	
+	@Test
+	void testSaveAllFailedChunkDoesNotStopTheOthers() {
+		//Arrange
+		final Person person1 = new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		final Person person2 = new Person("52998224725", "CENTOS", "centos@centos.com.br", LocalDate.parse("2000-01-01"));
+		final List<Person> persons = IntStream.range(0, PersonService.BATCH_CHUNK_SIZE + 1)
+				.mapToObj(i -> i < PersonService.BATCH_CHUNK_SIZE ? person1 : person2)
+				.collect(Collectors.toList());
+		runTransactionsInline();
+		doAnswer(i -> {
+			final List<Person> chunk = i.getArgument(0);
+			if (chunk.contains(person2)) {
+				throw new DataIntegrityViolationException("boom");
+			}
+			return inserted(chunk.size());
+		}).when(personRepository).insertAll(any());
+		
+		//Act
+		final List<PersonBatchResultDTO> ret = personService.saveAll(persons);
+		
+		//Assert
+		assertThat(ret.get(0).getStatus()).isEqualTo(Status.SAVED);
+		assertThat(ret.get(PersonService.BATCH_CHUNK_SIZE).getStatus()).isEqualTo(Status.FAILED);
+		assertThat(ret.get(PersonService.BATCH_CHUNK_SIZE).getMessage()).isEqualTo("boom");
+	}
+	
+	@Test
+	void testSaveAllReportsTakenCPFsAsConflicts() {
+		//Arrange
+		final Person existing = new Person("12345678909", "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		final Person created = new Person("52998224725", "CENTOS", "centos@centos.com.br", LocalDate.parse("2000-01-01"));
+		runTransactionsInline();
+		doReturn(new boolean[] {false, true}).when(personRepository).insertAll(any());
+		
+		//Act
+		final List<PersonBatchResultDTO> ret = personService.saveAll(List.of(existing, created));
+		
+		//Assert
+		assertThat(ret).extracting(PersonBatchResultDTO::getStatus).containsExactly(Status.CONFLICT, Status.SAVED);
+		assertThat(ret.get(0).getMessage()).isEqualTo("PESSOA JÁ CADASTRADA 12345678909");
+		verify(personSearchIndex).indexAll(List.of(created));
+	}
+	
+	/**
+	 * Runs the transactions on the calling thread, and inserts every person
+	 * unless the test says otherwise.
+	 */
+	private void runTransactionsInline() {
+		lenient().when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		lenient().when(personRepository.insertAll(any())).thenAnswer(i -> inserted(i.<List<Person>>getArgument(0).size()));
+	}
+	
+	private static boolean[] inserted(final int size) {
+		final boolean[] inserted = new boolean[size];
+		Arrays.fill(inserted, true);
+		return inserted;
+	}
+	
 	@Test
 	void testFindUserByCPF() {	
 		//Arrange
-		final String cpf = "12345678901";
-		final Person person = new Person(cpf, "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
-		when(personRepository.findById(cpf)).thenReturn(Optional.of(person));
+		final String cpf = "12345678909";
+		final PersonDTO person = new PersonDTO(cpf, "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		when(personRepository.findDTOByCpf(cpf)).thenReturn(Optional.of(person));
 		
 		//Act
-		final Person ret = personService.findByCPF(cpf);
+		final PersonDTO ret = personService.findByCPF(cpf);
 		
 		//Assert
 		assertThat(ret).isEqualTo(person);
@@ -101,12 +385,12 @@ public class PersonServiceTest {
 	@Test
 	void testRemoveDotsAndTracesFromCPFThanFind() {	
 		//Arrange
-		final String cpf = "12345678901";
-		final Person person = new Person(cpf, "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
-		when(personRepository.findById(cpf)).thenReturn(Optional.of(person));
+		final String cpf = "12345678909";
+		final PersonDTO person = new PersonDTO(cpf, "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		when(personRepository.findDTOByCpf(cpf)).thenReturn(Optional.of(person));
 		
 		//Act
-		final Person ret = personService.findByCPF("123.456.789-01");
+		final PersonDTO ret = personService.findByCPF("123.456.789-09");
 		
 		//Assert
 		assertThat(ret).isEqualTo(person);
@@ -115,8 +399,8 @@ public class PersonServiceTest {
 	@Test
 	void testThrowPersonNotFoundException() {	
 		//Arrange
-		final String cpf = "12345678901";
-		when(personRepository.findById(any())).thenReturn(Optional.empty());
+		final String cpf = "12345678909";
+		when(personRepository.findDTOByCpf(any())).thenReturn(Optional.empty());
 		
 		//Act	
 		//Assert
@@ -127,31 +411,30 @@ public class PersonServiceTest {
 	void testUpdateUser() {
 		
 		//Arrange
-		final String cpf = "12345678901";
-		final Person person = new Person(cpf, "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		final String cpf = "12345678909";
 		final Person updatePerson = new Person(cpf, "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"));
-		when(personRepository.findById(cpf)).thenReturn(Optional.of(person));
-		when(personRepository.save(any(Person.class))).thenAnswer(i -> i.getArgument(0));
+		when(personRepository.updateDetails(eq(cpf), eq("CENTOS"), eq("centos@centos.com.br"), eq(LocalDate.parse("2010-01-01")), isNull(), anyLong())).thenReturn(1);
 		
 		//Act
-		final Person ret = personService.update(cpf,updatePerson);
+		final Person ret = personService.update(cpf,updatePerson, null);
 		
 		//Assert
 		assertThat(ret).isEqualTo(updatePerson);
+		verify(personRepository).updateDetails(any(), any(), any(), any(), isNull(), eq(ret.getVersion().longValue()));
+		verifyNoMoreInteractions(personRepository);
+		verify(personSearchIndex).index(ret);
 	}
 	
 	@Test
 	void testRemoveDotsAndTracesThanUpdateUser() {
 		
 		//Arrange
-		final String cpf = "12345678901";
-		final Person person = new Person(cpf, "UBUNTU", "email@email.com", LocalDate.parse("2000-01-01"));
+		final String cpf = "12345678909";
 		final Person updatePerson = new Person(cpf, "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"));
-		when(personRepository.findById(cpf)).thenReturn(Optional.of(person));
-		when(personRepository.save(any(Person.class))).thenAnswer(i -> i.getArgument(0));
+		when(personRepository.updateDetails(eq(cpf), any(), any(), any(), isNull(), anyLong())).thenReturn(1);
 		
 		//Act
-		final Person ret = personService.update("123.456.789-01",updatePerson);
+		final Person ret = personService.update("123.456.789-09",updatePerson, null);
 		
 		//Assert
 		assertThat(ret).isEqualTo(updatePerson);
@@ -161,19 +444,96 @@ public class PersonServiceTest {
 	void testThrowPersonNotFoundExeption() {
 		
 		//Arrange
-		final String cpf = "12345678901";
+		final String cpf = "12345678909";
+		final Person updatePerson = new Person(cpf, "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"));
+		when(personRepository.updateDetails(any(), any(), any(), any(), any(), anyLong())).thenReturn(0);
+		when(personRepository.existsById(cpf)).thenReturn(false);
+		
+		//Act
+		//Assert
+		assertThrows(PersonNotFoundException.class,() -> personService.update(cpf,updatePerson, null));
+		verifyNoInteractions(personSearchIndex);
+	}
+	
+	@Test
+	void testUpdateUserOvertakenByALaterUpdate() {
+		
+		//Arrange
+		final String cpf = "12345678909";
+		final Person updatePerson = new Person(cpf, "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"));
+		when(personRepository.updateDetails(any(), any(), any(), any(), any(), anyLong())).thenReturn(0);
+		when(personRepository.existsById(cpf)).thenReturn(true);
+		
+		//Act
+		final Person ret = personService.update(cpf,updatePerson, null);
+		
+		//Assert
+		assertThat(ret).isEqualTo(updatePerson);
+		verifyNoInteractions(personSearchIndex);
+	}
+	
+	@Test
+	void testUpdateUserWithExpectedVersion() {
+		
+		//Arrange
+		final String cpf = "12345678909";
+		final Person updatePerson = new Person(cpf, "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"));
+		when(personRepository.updateDetails(eq(cpf), eq("CENTOS"), eq("centos@centos.com.br"), eq(LocalDate.parse("2010-01-01")), eq(3L), anyLong())).thenReturn(1);
+		
+		//Act
+		final Person ret = personService.update(cpf,updatePerson, 3L);
+		
+		//Assert
+		assertThat(ret.getVersion()).isGreaterThan(3L);
+		verify(personSearchIndex).index(ret);
+	}
+	
+	@Test
+	void testUpdateUserWithStaleVersion() {
+		
+		//Arrange
+		final String cpf = "12345678909";
 		final Person updatePerson = new Person(cpf, "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"));
-		when(personRepository.findById(cpf)).thenReturn(Optional.empty());
+		when(personRepository.updateDetails(any(), any(), any(), any(), any(), anyLong())).thenReturn(0);
+		when(personRepository.existsById(cpf)).thenReturn(true);
 		
 		//Act
 		//Assert
-		assertThrows(PersonNotFoundException.class,() -> personService.update(cpf,updatePerson));
+		assertThrows(PersonVersionConflictException.class,() -> personService.update(cpf,updatePerson, 3L));
+	}
+	
+	@Test
+	void testUpdateUnknownUserWithExpectedVersion() {
+		
+		//Arrange
+		final String cpf = "12345678909";
+		final Person updatePerson = new Person(cpf, "CENTOS", "centos@centos.com.br", LocalDate.parse("2010-01-01"));
+		when(personRepository.updateDetails(any(), any(), any(), any(), any(), anyLong())).thenReturn(0);
+		when(personRepository.existsById(cpf)).thenReturn(false);
+		
+		//Act
+		//Assert
+		assertThrows(PersonNotFoundException.class,() -> personService.update(cpf,updatePerson, 3L));
+	}
+	
+	@Test
+	void testInvalidUpdateIsRejected() {
+		
+		//Arrange
+		final String cpf = "12345678909";
+		final Person updatePerson = new Person(cpf, "CENTOS", "not-an-email", LocalDate.parse("2010-01-01"));
+		
+		//Act
+		//Assert
+		assertThrows(ConstraintViolationException.class,() -> personService.update(cpf,updatePerson, null));
+		verify(personRepository, never()).updateDetails(any(), any(), any(), any(), any(), anyLong());
 	}
 	
 	@Test
 	void testRemoveUser() {
 		//Arrange
-		final String cpf = "12345678901";
+		final String cpf = "12345678909";
+		when(personRepository.deleteByCpf(cpf)).thenReturn(1);
 		
 		//Act
 		//Assert
@@ -183,12 +543,57 @@ public class PersonServiceTest {
 	@Test
 	void testRemoveDotsAndTracesThanRemoveUser() {
 		//Arrange
-		final String cpf = "123.456.789-01";		
-		doNothing().when(personRepository).deleteById(any());
+		final String cpf = "123.456.789-09";		
+		when(personRepository.deleteByCpf("12345678909")).thenReturn(1);
 		
 		//Act
 		//Assert
 		assertDoesNotThrow(() -> personService.remove(cpf));
+		verify(personSearchIndex).delete(eq("12345678909"), anyLong());
+	}
+	
+	@Test
+	void testRemoveUserNotFound() {
+		//Arrange
+		final String cpf = "12345678909";
+		when(personRepository.deleteByCpf(cpf)).thenReturn(0);
+		
+		//Act
+		//Assert
+		assertThrows(PersonNotFoundException.class, () -> personService.remove(cpf));
+		verify(personSearchIndex, never()).delete(any(), anyLong());
+	}
+	
+	@Test
+	void testRemoveAllNormalizesAndChunksCPFs() {
+		//Arrange
+		when(transactionTemplate.execute(any())).thenAnswer(i -> i.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+		final List<String> cpfs = new ArrayList<>();
+		for (int i = 0; i < PersonService.DELETE_CHUNK_SIZE; i++) {
+			cpfs.add("123.456.789-09");
+			cpfs.add(validCpf(i));
+		}
+		when(personRepository.deleteByCpfIn(any())).thenAnswer(i -> i.<Collection<String>>getArgument(0).size());
+		
+		//Act
+		final int deleted = personService.removeAll(cpfs);
+		
+		//Assert
+		assertThat(deleted).isEqualTo(PersonService.DELETE_CHUNK_SIZE + 1);
+		verify(personRepository, times(2)).deleteByCpfIn(any());
+		verify(personSearchIndex).deleteAll(argThat(ids -> ids.size() == PersonService.DELETE_CHUNK_SIZE + 1), anyLong());
+	}
+	
+	private static String validCpf(final int seed) {
+		final StringBuilder cpf = new StringBuilder(String.format("%09d", 100000000 + seed));
+		for (int length = 9; length < 11; length++) {
+			int sum = 0;
+			for (int i = 0; i < length; i++) {
+				sum += (cpf.charAt(i) - '0') * (length + 1 - i);
+			}
+			cpf.append((sum * 10 % 11) % 10);
+		}
+		return cpf.toString();
 	}
 	
 }
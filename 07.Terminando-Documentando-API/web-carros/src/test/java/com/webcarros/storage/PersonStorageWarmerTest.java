@@ -0,0 +1,90 @@
+package com.webcarros.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.webcarros.domain.entities.Person;
+import com.webcarros.domain.repositories.PersonRepository;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+public class PersonStorageWarmerTest {
+	
+	@LocalServerPort int port;
+	
+	@Autowired PersonRepository personRepository;
+	
+	@Autowired JdbcTemplate jdbcTemplate;
+	
+	@Autowired RestTemplateBuilder restTemplateBuilder;
+	
+	@Autowired Environment environment;
+	
+	private PersonStorageWarmer warmer;
+	
+	@BeforeEach
+	void setUp() {
+		personRepository.deleteAllInBatch();
+		warmer = new PersonStorageWarmer(jdbcTemplate, restTemplateBuilder, environment);
+	}
+	
+	@Test
+	void testWarmUpReadsEveryRowOncePerScan() {
+		//Arrange
+		personRepository.save(new Person("12345678909", "UBUNTU", "email@email.com", null));
+		personRepository.save(new Person("52998224725", "DEBIAN", "debian@debian.org", null));
+		
+		//Act
+		final long rows = warmer.warmUp();
+		
+		//Assert
+		assertThat(rows).isEqualTo(2 * PersonStorageWarmer.WARM_UP_QUERIES.size());
+	}
+	
+	@Test
+	void testWarmUpScansTheTableAndEveryIndex() {
+		//Act
+		final List<String> plans = PersonStorageWarmer.WARM_UP_QUERIES.stream()
+				.map(sql -> jdbcTemplate.queryForObject("explain " + sql, String.class).toLowerCase())
+				.collect(Collectors.toList());
+		
+		//Assert
+		assertThat(plans.get(0)).contains("tablescan");
+		assertThat(plans.get(1)).contains("primary_key");
+		assertThat(plans.get(2)).contains("idx_person_name");
+		assertThat(plans.get(3)).contains("idx_person_email");
+	}
+	
+	@Test
+	void testReplayReadsStartsOverAtTheEndOfTheTable() {
+		//Arrange
+		personRepository.save(new Person("12345678909", "UBUNTU", "email@email.com", null));
+		personRepository.save(new Person("52998224725", "DEBIAN", "debian@debian.org", null));
+		
+		//Act
+		final int requests = warmer.replayReads("http://localhost:" + port, 7);
+		
+		//Assert
+		assertThat(requests).isEqualTo(7);
+	}
+	
+	@Test
+	void testReplayReadsStopsOnAnEmptyTable() {
+		//Act
+		final int requests = warmer.replayReads("http://localhost:" + port, 7);
+		
+		//Assert
+		assertThat(requests).isEqualTo(1);
+	}
+}